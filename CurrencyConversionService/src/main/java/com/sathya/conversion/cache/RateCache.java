@@ -0,0 +1,338 @@
+package com.sathya.conversion.cache;
+
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.proxy.CurrencyExchangeProxy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Local cache of exchange rates from currency-exchange-service.
+ *
+ * An entry is FRESH for the TTL and is refreshed in the background once it is within
+ * the refresh-ahead window of expiring, so hot pairs are reloaded before anyone sees
+ * a miss. After the TTL it is served as STALE (again triggering a background refresh)
+ * until max-staleness, after which it is unusable and callers go to the service or
+ * FALLBACK_RATES.
+ *
+ * Rate changes pushed by currency-exchange-service (applyChange) keep entries current,
+ * so the TTL can be long. Each entry carries the pushed version it reflects; deleted
+ * pairs leave an empty entry behind so older versions cannot bring them back.
+ */
+@Component
+public class RateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateCache.class);
+
+    public enum Freshness { FRESH, STALE }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Counts applied pushed changes; see changeSequence()
+    private final AtomicLong changeSequence = new AtomicLong();
+    // Fetches that started before the last clear() may predate missed changes
+    private volatile long clearedAtSequence;
+
+    private final CurrencyExchangeProxy exchangeProxy;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long maxStalenessNanos;
+    private final int maxEntries;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+
+    @Autowired
+    public RateCache(CurrencyExchangeProxy exchangeProxy,
+                     MeterRegistry meterRegistry,
+                     @Value("${rate-cache.ttl:10m}") Duration ttl,
+                     @Value("${rate-cache.refresh-ahead:1m}") Duration refreshAhead,
+                     @Value("${rate-cache.max-staleness:1h}") Duration maxStaleness,
+                     @Value("${rate-cache.max-entries:10000}") int maxEntries,
+                     @Value("${rate-cache.refresh-threads:2}") int refreshThreads) {
+        this(exchangeProxy, meterRegistry, ttl, refreshAhead, maxStaleness, maxEntries,
+             newRefreshExecutor(refreshThreads), System::nanoTime);
+    }
+
+    RateCache(CurrencyExchangeProxy exchangeProxy, MeterRegistry meterRegistry,
+              Duration ttl, Duration refreshAhead, Duration maxStaleness, int maxEntries,
+              Executor refreshExecutor, LongSupplier clock) {
+        this.exchangeProxy = exchangeProxy;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAheadNanos = Math.min(refreshAhead.toNanos(), ttlNanos);
+        this.maxStalenessNanos = Math.max(maxStaleness.toNanos(), ttlNanos);
+        this.maxEntries = maxEntries;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.refreshSuccess = refreshTimer(meterRegistry, "success");
+        this.refreshFailure = refreshTimer(meterRegistry, "failure");
+
+        Gauge.builder("currency.rate.cache.size", entries, Map::size)
+                .description("Currency pairs held in the local rate cache")
+                .register(meterRegistry);
+        Gauge.builder("currency.rate.cache.hit.ratio", this, RateCache::hitRatio)
+                .description("Share of rate lookups answered from the cache (fresh or stale)")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("currency.rate.cache.requests")
+                .tag("result", result)
+                .description("Rate lookups by cache outcome")
+                .register(meterRegistry);
+    }
+
+    private static Timer refreshTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("currency.rate.cache.refresh")
+                .tag("outcome", outcome)
+                .description("Latency of background rate refreshes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static ExecutorService newRefreshExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        // Bounded queue; a refresh that is rejected is retried on a later lookup
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rate-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Cached rate for the pair, or null if there is none within max-staleness.
+     * Schedules a background refresh when the entry is close to or past expiry.
+     */
+    public CachedRate get(String from, String to) {
+        String key = key(from, to);
+        Entry entry = entries.get(key);
+        long now = clock.getAsLong();
+
+        if (entry == null || entry.rate == null || now - entry.loadedAt >= maxStalenessNanos) {
+            misses.increment();
+            return null;
+        }
+
+        long age = now - entry.loadedAt;
+        if (age >= ttlNanos - refreshAheadNanos) {
+            scheduleRefresh(key, from, to, entry);
+        }
+
+        if (age < ttlNanos) {
+            hits.increment();
+            return new CachedRate(entry.rate, Freshness.FRESH);
+        }
+        staleHits.increment();
+        return new CachedRate(entry.rate, Freshness.STALE);
+    }
+
+    /**
+     * Read before fetching a rate and pass to put(), so that a fetch that raced with a
+     * pushed change cannot overwrite it with the older value.
+     */
+    public long changeSequence() {
+        return changeSequence.get();
+    }
+
+    /**
+     * Cache a rate fetched from the service. Ignored when a change for the pair was pushed
+     * after seenChangeSequence was read.
+     */
+    public void put(String from, String to, CurrencyConversion rate, long seenChangeSequence) {
+        if (rate == null || rate.getConversionMultiple() == null || seenChangeSequence < clearedAtSequence) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        CurrencyConversion copy = copyOf(rate);
+        entries.compute(key(from, to), (key, existing) -> {
+            if (existing == null) {
+                return new Entry(copy, clock.getAsLong(), 0, 0);
+            }
+            if (existing.changeSequence > seenChangeSequence) {
+                return existing;
+            }
+            return new Entry(copy, clock.getAsLong(), existing.version, existing.changeSequence);
+        });
+    }
+
+    public void invalidate(String from, String to) {
+        entries.remove(key(from, to));
+    }
+
+    /**
+     * Apply a pushed rate change (null rate = pair deleted). Changes at or below the last
+     * applied version for the pair are ignored, so redelivered or reordered events are
+     * harmless. Returns whether the change was applied.
+     *
+     * Derived cross rates (no id) may depend on the changed pair, so they are dropped
+     * and re-fetched on next use.
+     */
+    public boolean applyChange(String from, String to, CurrencyConversion rate, long version) {
+        CurrencyConversion copy = rate == null || rate.getConversionMultiple() == null ? null : copyOf(rate);
+        boolean[] applied = new boolean[1];
+
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.compute(key(from, to), (key, existing) -> {
+            if (existing != null && version <= existing.version) {
+                return existing;
+            }
+            applied[0] = true;
+            return new Entry(copy, clock.getAsLong(), version, changeSequence.incrementAndGet());
+        });
+
+        if (applied[0]) {
+            entries.values().removeIf(entry -> entry.rate != null && entry.rate.getId() == null);
+        }
+        return applied[0];
+    }
+
+    /**
+     * Drop every entry, e.g. when pushed changes may have been missed. Fetches already
+     * in flight are not cached.
+     */
+    public void clear() {
+        clearedAtSequence = changeSequence.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void scheduleRefresh(String key, String from, String to, Entry entry) {
+        // One refresh per entry at a time; the replacing put() ends it
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, from, to, entry));
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void refresh(String key, String from, String to, Entry entry) {
+        long start = clock.getAsLong();
+        try {
+            CurrencyConversion rate = exchangeProxy.retrieveExchangeValue(from, to);
+            // Only replace the entry this refresh was started for; a pushed change or invalidation wins
+            entries.replace(key, entry, new Entry(copyOf(rate), clock.getAsLong(), entry.version, entry.changeSequence));
+            refreshSuccess.record(clock.getAsLong() - start, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            refreshFailure.record(clock.getAsLong() - start, TimeUnit.NANOSECONDS);
+            entry.refreshing.set(false);
+            logger.warn("⚠️ Background refresh failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    // Drop entries past max-staleness first, then arbitrary ones until there is room
+    private void evict() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> now - entry.loadedAt >= maxStalenessNanos);
+
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + staleHits.count();
+        double total = served + misses.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static String key(String from, String to) {
+        return from.toUpperCase() + "-" + to.toUpperCase();
+    }
+
+    private static CurrencyConversion copyOf(CurrencyConversion rate) {
+        return new CurrencyConversion(rate.getId(), rate.getFrom(), rate.getTo(), rate.getConversionMultiple(),
+                                      null, null, rate.getEnvironment());
+    }
+
+    private static final class Entry {
+        // null once the pair was deleted
+        private final CurrencyConversion rate;
+        private final long loadedAt;
+        // Last pushed version for the pair and the changeSequence it was applied at (0 if never pushed)
+        private final long version;
+        private final long changeSequence;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(CurrencyConversion rate, long loadedAt, long version, long changeSequence) {
+            this.rate = rate;
+            this.loadedAt = loadedAt;
+            this.version = version;
+            this.changeSequence = changeSequence;
+        }
+    }
+
+    public static final class CachedRate {
+        private final CurrencyConversion rate;
+        private final Freshness freshness;
+
+        private CachedRate(CurrencyConversion rate, Freshness freshness) {
+            this.rate = rate;
+            this.freshness = freshness;
+        }
+
+        public Freshness getFreshness() { return freshness; }
+        public BigDecimal getConversionMultiple() { return rate.getConversionMultiple(); }
+
+        // Fresh copy marked with where the rate came from, e.g. "🟢 CACHED - 8000"
+        public CurrencyConversion toConversion() {
+            String marker = freshness == Freshness.FRESH ? "🟢 CACHED" : "🟡 STALE";
+            String origin = rate.getEnvironment();
+            return new CurrencyConversion(rate.getId(), rate.getFrom(), rate.getTo(), rate.getConversionMultiple(),
+                                          null, null, origin != null ? marker + " - " + origin : marker);
+        }
+    }
+}
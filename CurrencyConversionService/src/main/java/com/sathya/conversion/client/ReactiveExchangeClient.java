@@ -0,0 +1,79 @@
+package com.sathya.conversion.client;
+
+import com.sathya.conversion.model.CurrencyConversion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of CurrencyExchangeProxy, on the @LoadBalanced WebClient.Builder.
+ * Every attempt has its own timeout; failures other than 4xx are retried with backoff.
+ */
+@Component
+public class ReactiveExchangeClient {
+
+    private static final ParameterizedTypeReference<List<CurrencyConversion>> RATE_LIST =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final Duration timeout;
+    private final Retry retry;
+
+    public ReactiveExchangeClient(WebClient.Builder webClientBuilder,
+                                  @Value("${reactive.exchange.base-url:http://currency-exchange-service}") String baseUrl,
+                                  @Value("${reactive.exchange.timeout:2s}") Duration timeout,
+                                  @Value("${reactive.exchange.retries:2}") int retries,
+                                  @Value("${reactive.exchange.retry-backoff:100ms}") Duration retryBackoff,
+                                  @Value("${reactive.exchange.max-connections:500}") int maxConnections,
+                                  @Value("${reactive.exchange.max-pending:10000}") int maxPending) {
+        // Reactor Netty's default pool (2 x CPUs connections, short pending queue) caps in-flight calls far too low
+        ConnectionProvider connections = ConnectionProvider.builder("currency-exchange-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPending)
+                .pendingAcquireTimeout(timeout)
+                .build();
+
+        // clone(): the builder bean is shared, don't leave our base URL or connector on it
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        this.timeout = timeout;
+        this.retry = Retry.backoff(retries, retryBackoff)
+                .filter(ReactiveExchangeClient::isRetryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    public Mono<CurrencyConversion> retrieveExchangeValue(String from, String to) {
+        return webClient.get()
+                .uri("/currency-exchange/from/{from}/to/{to}", from, to)
+                .retrieve()
+                .bodyToMono(CurrencyConversion.class)
+                .timeout(timeout)
+                .retryWhen(retry);
+    }
+
+    public Mono<List<CurrencyConversion>> retrieveExchangeValues(String from, List<String> to) {
+        return webClient.get()
+                .uri(uri -> uri.path("/currency-exchange/from/{from}/batch").queryParam("to", to).build(from))
+                .retrieve()
+                .bodyToMono(RATE_LIST)
+                .timeout(timeout)
+                .retryWhen(retry);
+    }
+
+    // A 4xx (e.g. unknown pair) will not get better on retry
+    private static boolean isRetryable(Throwable error) {
+        return !(error instanceof WebClientResponseException response) || response.getStatusCode().is5xxServerError();
+    }
+}
@@ -0,0 +1,41 @@
+package com.sathya.conversion.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ConversionWorkerConfig {
+
+    // Batch consumers for currency-conversion-request-queue (ConversionWorker); acks are manual, per message
+    @Bean
+    public SimpleRabbitListenerContainerFactory conversionWorkerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${conversion-worker.concurrency:4}") int concurrency,
+            @Value("${conversion-worker.max-concurrency:8}") int maxConcurrency,
+            @Value("${conversion-worker.prefetch:250}") int prefetch,
+            @Value("${conversion-worker.batch-size:50}") int batchSize,
+            @Value("${conversion-worker.batch-timeout:100ms}") Duration batchTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        // The worker settles every message itself; the global listener retry would redeliver whole batches
+        factory.setAdviceChain();
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setDefaultRequeueRejected(false);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchTimeout.toMillis());
+        return factory;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sathya.conversion.config;
 
+import com.sathya.conversion.messaging.NegotiatingMessageConverter;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -16,13 +17,19 @@ public class RabbitMQConfig {
     
     // Queues
     public static final String CONVERSION_QUEUE = "currency-conversion-queue";
+    public static final String CONVERSION_REQUEST_QUEUE = "currency-conversion-request-queue";
     public static final String NOTIFICATION_QUEUE = "currency-notification-queue";
     public static final String DEAD_LETTER_QUEUE = "currency-dead-letter-queue";
     
     // Routing Keys
     public static final String CONVERSION_ROUTING_KEY = "conversion.key";
+    public static final String CONVERSION_REQUEST_ROUTING_KEY = "conversion.request.key";
     public static final String NOTIFICATION_ROUTING_KEY = "notification.key";
     public static final String DEAD_LETTER_ROUTING_KEY = "dead.letter.key";
+    public static final String RATE_CHANGE_ROUTING_KEY = "rate.change.key";
+    
+    // Rate change queues are per instance: every instance must see every change for its own cache
+    public static final String RATE_CHANGE_QUEUE_PREFIX = "currency-rate-change-queue.";
 
     // Queue for currency conversion messages
     @Bean
@@ -33,6 +40,15 @@ public class RabbitMQConfig {
                 .build();
     }
     
+    // Queue for async conversion requests (ConversionWorker)
+    @Bean
+    public Queue conversionRequestQueue() {
+        return QueueBuilder.durable(CONVERSION_REQUEST_QUEUE)
+                .withArgument("x-dead-letter-exchange", EXCHANGE_NAME)
+                .withArgument("x-dead-letter-routing-key", DEAD_LETTER_ROUTING_KEY)
+                .build();
+    }
+    
     // Queue for notifications
     @Bean
     public Queue notificationQueue() {
@@ -45,6 +61,13 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(DEAD_LETTER_QUEUE).build();
     }
     
+    // Exclusive, auto-delete queue for this instance: changes sent while it is disconnected are lost,
+    // so RateChangeListener clears the rate cache whenever its consumer (re)starts
+    @Bean
+    public Queue rateChangeQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(RATE_CHANGE_QUEUE_PREFIX));
+    }
+    
     // Topic Exchange
     @Bean
     public TopicExchange exchange() {
@@ -59,6 +82,13 @@ public class RabbitMQConfig {
                 .with(CONVERSION_ROUTING_KEY);
     }
     
+    @Bean
+    public Binding conversionRequestBinding(Queue conversionRequestQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(conversionRequestQueue)
+                .to(exchange)
+                .with(CONVERSION_REQUEST_ROUTING_KEY);
+    }
+    
     @Bean
     public Binding notificationBinding(Queue notificationQueue, TopicExchange exchange) {
         return BindingBuilder.bind(notificationQueue)
@@ -73,17 +103,27 @@ public class RabbitMQConfig {
                 .with(DEAD_LETTER_ROUTING_KEY);
     }
     
-    // Message converter for JSON
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public Binding rateChangeBinding(Queue rateChangeQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(rateChangeQueue)
+                .to(exchange)
+                .with(RATE_CHANGE_ROUTING_KEY);
+    }
+    
+    // Message converter: JSON outbound (MessageProducer opts routing keys into binary itself);
+    // inbound messages are decoded by content-type
+    @Bean
+    public MessageConverter messageConverter() {
+        return new NegotiatingMessageConverter(new Jackson2JsonMessageConverter(), NegotiatingMessageConverter.Format.JSON);
     }
     
     // RabbitTemplate
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(messageConverter);
+        // Unroutable messages come back as returns instead of being dropped silently
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 }
\ No newline at end of file
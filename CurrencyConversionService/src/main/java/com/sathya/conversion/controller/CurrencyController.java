@@ -1,13 +1,20 @@
 package com.sathya.conversion.controller;
 
 import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.service.BulkStreamService;
 import com.sathya.conversion.service.CurrencyService;
+import com.sathya.conversion.service.ReactiveCurrencyService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -21,6 +28,12 @@ public class CurrencyController {
     @Autowired
     private CurrencyService currencyService;
     
+    @Autowired
+    private BulkStreamService bulkStreamService;
+    
+    @Autowired
+    private ReactiveCurrencyService reactiveCurrencyService;
+    
     // ==================== GET ENDPOINTS ====================
     
     @GetMapping("/convert/from/{from}/to/{to}/quantity/{quantity}")
@@ -89,6 +102,17 @@ public class CurrencyController {
         }
     }
     
+    /**
+     * Streaming bulk conversion: NDJSON (from, to, amount) lines in, one result per line
+     * out as NDJSON or SSE (by Accept), in input order, written as each becomes ready.
+     */
+    @PostMapping(value = "/bulk-convert/stream",
+                 consumes = MediaType.APPLICATION_NDJSON_VALUE,
+                 produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<CurrencyConversion> bulkCurrencyConversionStream(HttpServletRequest request) throws IOException {
+        return bulkStreamService.convert(request.getInputStream());
+    }
+    
     @PostMapping("/convert-with-fee/from/{from}/to/{to}/quantity/{quantity}/fee/{feePercentage}")
     public ResponseEntity<CurrencyConversion> convertWithFee(
             @PathVariable String from,
@@ -171,6 +195,29 @@ public class CurrencyController {
         }
     }
     
+    // ==================== REACTIVE ENDPOINTS ====================
+    // Same results as the endpoints above, but no servlet thread waits on the exchange service
+    
+    @GetMapping("/reactive/convert/from/{from}/to/{to}/quantity/{quantity}")
+    public Mono<CurrencyConversion> convertCurrencyReactive(
+            @PathVariable String from,
+            @PathVariable String to,
+            @PathVariable BigDecimal quantity) {
+        
+        return reactiveCurrencyService.convertCurrency(from, to, quantity);
+    }
+    
+    @PostMapping("/reactive/bulk-convert")
+    public Mono<List<CurrencyConversion>> bulkCurrencyConversionReactive(
+            @RequestBody BulkConversionRequest request) {
+        
+        return reactiveCurrencyService.bulkConvert(
+            request.getFrom(),
+            request.getAmount(),
+            request.getTargetCurrencies()
+        ).collectList();
+    }
+    
     // ==================== HEALTH CHECK ====================
     
     @GetMapping("/health")
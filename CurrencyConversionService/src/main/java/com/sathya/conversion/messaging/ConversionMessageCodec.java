@@ -0,0 +1,272 @@
+package com.sathya.conversion.messaging;
+
+import com.sathya.conversion.model.CurrencyConversionMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of CurrencyConversionMessage (schema version 1).
+ *
+ * Layout: [version][presence bits][conversionId][from][to][amount][convertedAmount]
+ * [exchangeRate][status], where absent (null) fields take no bytes at all:
+ * - conversionId is a zig-zag varint
+ * - currency codes are 3 ASCII bytes each; any other code switches both to
+ *   length-prefixed UTF-8 (LONG_CODES bit)
+ * - amounts are a signed scale byte followed by the zig-zag varint unscaled value;
+ *   a scale byte of WIDE_AMOUNT marks amounts that do not fit a long
+ * - status is one byte for the known statuses, or 0 followed by UTF-8 text
+ *
+ * A typical completed conversion is 20-25 bytes (about 155 as JSON). Decoding rejects
+ * unknown versions, so a new layout needs a new version number.
+ */
+public final class ConversionMessageCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_FROM = 1 << 1;
+    private static final int HAS_TO = 1 << 2;
+    private static final int HAS_AMOUNT = 1 << 3;
+    private static final int HAS_CONVERTED_AMOUNT = 1 << 4;
+    private static final int HAS_EXCHANGE_RATE = 1 << 5;
+    private static final int HAS_STATUS = 1 << 6;
+    private static final int LONG_CODES = 1 << 7;
+
+    private static final byte WIDE_AMOUNT = Byte.MIN_VALUE;
+
+    // Index = status code; 0 means "spelled out"
+    private static final String[] STATUSES = { null, "ASYNC_REQUEST", "CONVERSION_COMPLETED", "NOTIFICATION_SENT" };
+
+    private ConversionMessageCodec() {
+    }
+
+    public static byte[] encode(CurrencyConversionMessage message) {
+        String from = message.getFromCurrency();
+        String to = message.getToCurrency();
+        boolean longCodes = (from != null && !isIsoCode(from)) || (to != null && !isIsoCode(to));
+
+        int presence = (message.getConversionId() != null ? HAS_ID : 0)
+                | (from != null ? HAS_FROM : 0)
+                | (to != null ? HAS_TO : 0)
+                | (message.getAmount() != null ? HAS_AMOUNT : 0)
+                | (message.getConvertedAmount() != null ? HAS_CONVERTED_AMOUNT : 0)
+                | (message.getExchangeRate() != null ? HAS_EXCHANGE_RATE : 0)
+                | (message.getStatus() != null ? HAS_STATUS : 0)
+                | (longCodes ? LONG_CODES : 0);
+
+        Writer out = new Writer();
+        out.write(VERSION);
+        out.write(presence);
+        if (message.getConversionId() != null) {
+            out.writeVarLong(message.getConversionId());
+        }
+        writeCode(out, from, longCodes);
+        writeCode(out, to, longCodes);
+        writeAmount(out, message.getAmount());
+        writeAmount(out, message.getConvertedAmount());
+        writeAmount(out, message.getExchangeRate());
+        if (message.getStatus() != null) {
+            int code = statusCode(message.getStatus());
+            out.write(code);
+            if (code == 0) {
+                out.writeString(message.getStatus());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static CurrencyConversionMessage decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        int version = in.read();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported conversion message version " + version);
+        }
+        int presence = in.read();
+        boolean longCodes = (presence & LONG_CODES) != 0;
+
+        CurrencyConversionMessage message = new CurrencyConversionMessage();
+        if ((presence & HAS_ID) != 0) {
+            message.setConversionId(in.readVarLong());
+        }
+        if ((presence & HAS_FROM) != 0) {
+            message.setFromCurrency(readCode(in, longCodes));
+        }
+        if ((presence & HAS_TO) != 0) {
+            message.setToCurrency(readCode(in, longCodes));
+        }
+        if ((presence & HAS_AMOUNT) != 0) {
+            message.setAmount(readAmount(in));
+        }
+        if ((presence & HAS_CONVERTED_AMOUNT) != 0) {
+            message.setConvertedAmount(readAmount(in));
+        }
+        if ((presence & HAS_EXCHANGE_RATE) != 0) {
+            message.setExchangeRate(readAmount(in));
+        }
+        if ((presence & HAS_STATUS) != 0) {
+            int code = in.read();
+            if (code >= STATUSES.length) {
+                throw new IllegalArgumentException("Unknown status code " + code);
+            }
+            message.setStatus(code == 0 ? in.readString() : STATUSES[code]);
+        }
+        if (in.remaining() != 0) {
+            throw new IllegalArgumentException(in.remaining() + " trailing bytes after conversion message");
+        }
+        return message;
+    }
+
+    private static boolean isIsoCode(String code) {
+        if (code.length() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            char c = code.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeCode(Writer out, String code, boolean longCodes) {
+        if (code == null) {
+            return;
+        }
+        if (longCodes) {
+            out.writeString(code);
+        } else {
+            out.write(code.charAt(0));
+            out.write(code.charAt(1));
+            out.write(code.charAt(2));
+        }
+    }
+
+    private static String readCode(Reader in, boolean longCodes) {
+        if (longCodes) {
+            return in.readString();
+        }
+        return new String(new char[] { (char) in.read(), (char) in.read(), (char) in.read() });
+    }
+
+    private static void writeAmount(Writer out, BigDecimal amount) {
+        if (amount == null) {
+            return;
+        }
+        BigInteger unscaled = amount.unscaledValue();
+        int scale = amount.scale();
+        if (unscaled.bitLength() < 64 && scale > WIDE_AMOUNT && scale <= Byte.MAX_VALUE) {
+            out.write(scale);
+            out.writeVarLong(unscaled.longValueExact());
+        } else {
+            out.write(WIDE_AMOUNT);
+            out.writeVarLong(scale);
+            byte[] magnitude = unscaled.toByteArray();
+            out.writeVarLong(magnitude.length);
+            out.write(magnitude);
+        }
+    }
+
+    private static BigDecimal readAmount(Reader in) {
+        byte scale = (byte) in.read();
+        if (scale != WIDE_AMOUNT) {
+            return BigDecimal.valueOf(in.readVarLong(), scale);
+        }
+        int wideScale = Math.toIntExact(in.readVarLong());
+        return new BigDecimal(new BigInteger(in.readBytes(in.readLength())), wideScale);
+    }
+
+    private static int statusCode(String status) {
+        for (int code = 1; code < STATUSES.length; code++) {
+            if (STATUSES[code].equals(status)) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(32);
+        }
+
+        void writeVarLong(long value) {
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7FL) != 0) {
+                write((int) ((zigZag & 0x7F) | 0x80));
+                zigZag >>>= 7;
+            }
+            write((int) zigZag);
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int read() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated conversion message");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long zigZag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                zigZag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in conversion message");
+        }
+
+        int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > remaining()) {
+                throw new IllegalArgumentException("Truncated conversion message");
+            }
+            return (int) length;
+        }
+
+        byte[] readBytes(int length) {
+            byte[] value = new byte[length];
+            System.arraycopy(bytes, position, value, 0, length);
+            position += length;
+            return value;
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        int remaining() {
+            return bytes.length - position;
+        }
+    }
+}
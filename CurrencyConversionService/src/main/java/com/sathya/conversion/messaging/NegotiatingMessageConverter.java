@@ -0,0 +1,55 @@
+package com.sathya.conversion.messaging;
+
+import com.sathya.conversion.model.CurrencyConversionMessage;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Chooses the wire format by content-type.
+ *
+ * Inbound, messages with CONTENT_TYPE are decoded with ConversionMessageCodec and
+ * everything else goes to the JSON converter, so JSON producers (rate changes from
+ * currency-exchange-service, conversion events from older instances) keep working.
+ * Outbound, CurrencyConversionMessage is written in the configured format; any other
+ * payload is always JSON.
+ */
+public class NegotiatingMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-currency-conversion";
+
+    public enum Format { JSON, BINARY }
+
+    private final MessageConverter jsonConverter;
+    private final Format outboundFormat;
+
+    public NegotiatingMessageConverter(MessageConverter jsonConverter, Format outboundFormat) {
+        this.jsonConverter = jsonConverter;
+        this.outboundFormat = outboundFormat;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (outboundFormat == Format.BINARY && object instanceof CurrencyConversionMessage message) {
+            byte[] body = ConversionMessageCodec.encode(message);
+            messageProperties.setContentType(CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            return new Message(body, messageProperties);
+        }
+        return jsonConverter.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        String contentType = message.getMessageProperties().getContentType();
+        if (contentType != null && contentType.startsWith(CONTENT_TYPE)) {
+            try {
+                return ConversionMessageCodec.decode(message.getBody());
+            } catch (RuntimeException e) {
+                throw new MessageConversionException("Cannot decode binary conversion message", e);
+            }
+        }
+        return jsonConverter.fromMessage(message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.sathya.conversion.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One (from, to, amount) tuple of a streamed bulk conversion, e.g. one NDJSON line
+ * {"from":"USD","to":"INR","amount":100}.
+ */
+public class ConversionRequest {
+    private String from;
+    private String to;
+    private BigDecimal amount;
+    
+    // Constructors
+    public ConversionRequest() {}
+    
+    public ConversionRequest(String from, String to, BigDecimal amount) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+    
+    // Getters and Setters
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+    
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
@@ -0,0 +1,412 @@
+package com.sathya.conversion.outbox;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local log of outgoing events (the outbox).
+ *
+ * Events are written to memory-mapped segment files before anything is sent to the
+ * broker, so appending costs a copy into the page cache rather than a network round
+ * trip, and survives a process crash (and, with force-on-append, a power loss). A
+ * relay reads entries in order and checkpoints the offset up to which the broker has
+ * confirmed them; on restart everything after the checkpoint is read again.
+ *
+ * Offsets are global byte positions: segment n covers [n * segmentSize, (n + 1) *
+ * segmentSize). Each record is [length][crc32c][appendedAt][routing key][id][body];
+ * length is written last, so a record is only visible once complete, and a record
+ * with a bad checksum marks the end of the log on recovery.
+ *
+ * The directory belongs to one process: it is locked while the log is open, and a
+ * second instance pointed at it fails to start instead of sharing the segments.
+ */
+@Component
+public class OutboxLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxLog.class);
+
+    private static final int HEADER_SIZE = 8;         // length + crc
+    private static final int ROLL_MARKER = -1;        // rest of the segment is unused
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = "lock";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean forceOnAppend;
+    private final FileLock directoryLock;
+
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+
+    // Writers (request threads) take the lock; the relay only reads below writeOffset
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition spaceFreed = lock.newCondition();
+
+    private volatile long writeOffset;
+    private volatile long checkpointOffset;
+    private volatile long pendingEntries;
+
+    @Autowired
+    public OutboxLog(@Value("${outbox.dir:./data/outbox}") Path directory,
+                     @Value("${outbox.segment-size:64MB}") DataSize segmentSize,
+                     @Value("${outbox.max-segments:16}") int maxSegments,
+                     @Value("${outbox.force-on-append:false}") boolean forceOnAppend) {
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.maxSegments = Math.max(2, maxSegments);
+        this.forceOnAppend = forceOnAppend;
+        try {
+            Files.createDirectories(directory);
+            this.directoryLock = lockDirectory(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open outbox in " + directory, e);
+        }
+    }
+
+    private static FileLock lockDirectory(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock fileLock = null;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already held by another OutboxLog in this JVM
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IllegalStateException("Outbox " + directory.toAbsolutePath()
+                    + " is in use by another instance; give each instance its own outbox.dir");
+        }
+        return fileLock;
+    }
+
+    /**
+     * Append an entry. Waits up to timeout for the relay to free space when the log
+     * holds max-segments; returns false if it is still full.
+     */
+    public boolean append(String id, String routingKey, byte[] body, long timeout, TimeUnit unit) {
+        byte[] key = routingKey.getBytes(StandardCharsets.UTF_8);
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 2 + key.length + 2 + idBytes.length + body.length;
+        if (HEADER_SIZE + length > segmentSize) {
+            throw new IllegalArgumentException("Outbox entry of " + length + " bytes exceeds the segment size");
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putLong(System.currentTimeMillis())
+              .putShort((short) key.length).put(key)
+              .putShort((short) idBytes.length).put(idBytes)
+              .put(body);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 0, length);
+
+        long waitNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            long offset;
+            int position;
+            while (true) {
+                offset = writeOffset;
+                position = positionOf(offset);
+                if (position + HEADER_SIZE + length <= segmentSize) {
+                    break;
+                }
+                if (segmentIndex(offset) + 1 - segmentIndex(checkpointOffset) < maxSegments) {
+                    offset = roll(offset);
+                    position = 0;
+                    break;
+                }
+                // Full: wait for the relay to checkpoint, then look again (others may have written meanwhile)
+                if (waitNanos <= 0) {
+                    return false;
+                }
+                waitNanos = spaceFreed.awaitNanos(waitNanos);
+            }
+
+            MappedByteBuffer segment = segments.get(segmentBase(offset));
+            segment.putInt(position + 4, (int) crc.getValue());
+            segment.put(position + HEADER_SIZE, record.array(), 0, length);
+            segment.putInt(position, length);
+            if (forceOnAppend) {
+                segment.force(position, HEADER_SIZE + length);
+            }
+
+            writeOffset = offset + HEADER_SIZE + length;
+            pendingEntries++;
+            appended.signalAll();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Up to max entries starting at offset (an entry boundary, e.g. a previous nextOffset)
+    public List<Entry> read(long offset, int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, 1024));
+        long end = writeOffset;
+        while (entries.size() < max && offset < end) {
+            ByteBuffer segment = segments.get(segmentBase(offset)).duplicate();
+            int position = positionOf(offset);
+            int length = position + HEADER_SIZE <= segmentSize ? segment.getInt(position) : ROLL_MARKER;
+            if (length == ROLL_MARKER || length == 0) {
+                offset = segmentBase(offset) + segmentSize;
+                continue;
+            }
+            segment.position(position + HEADER_SIZE);
+            long appendedAt = segment.getLong();
+            String routingKey = readString(segment);
+            String id = readString(segment);
+            byte[] body = new byte[length - (segment.position() - position - HEADER_SIZE)];
+            segment.get(body);
+
+            offset += HEADER_SIZE + length;
+            entries.add(new Entry(id, routingKey, body, appendedAt, offset));
+        }
+        return entries;
+    }
+
+    // Wait until there is something to read after offset
+    public boolean awaitEntries(long offset, long timeout, TimeUnit unit) throws InterruptedException {
+        if (writeOffset > offset) {
+            return true;
+        }
+        lock.lock();
+        try {
+            long waitNanos = unit.toNanos(timeout);
+            while (writeOffset <= offset && waitNanos > 0) {
+                waitNanos = appended.awaitNanos(waitNanos);
+            }
+            return writeOffset > offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record that everything before offset has been delivered (entries = how many entries
+     * that covers since the last checkpoint). Segments entirely before it are deleted.
+     */
+    public void checkpoint(long offset, int entries) {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.write(temporary, ByteBuffer.allocate(8).putLong(offset).array());
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Not fatal: a stale checkpoint only means more entries are re-sent after a restart
+            logger.warn("⚠️ Failed to write outbox checkpoint {}: {}", offset, e.getMessage());
+        }
+
+        lock.lock();
+        try {
+            checkpointOffset = offset;
+            pendingEntries = Math.max(0, pendingEntries - entries);
+            long firstKept = segmentBase(offset);
+            for (Long base : List.copyOf(segments.keySet())) {
+                if (base < firstKept) {
+                    segments.remove(base);
+                    Files.deleteIfExists(segmentPath(base));
+                }
+            }
+            spaceFreed.signalAll();
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to delete delivered outbox segment: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long checkpointOffset() {
+        return checkpointOffset;
+    }
+
+    public boolean hasEntriesAfter(long offset) {
+        return writeOffset > offset;
+    }
+
+    // Entries appended but not yet checkpointed
+    public long pendingCount() {
+        return pendingEntries;
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            segments.values().forEach(MappedByteBuffer::force);
+            directoryLock.channel().close();
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to release outbox lock in {}: {}", directory, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Start a new segment after the one containing offset; returns the new write offset
+    private long roll(long offset) {
+        MappedByteBuffer current = segments.get(segmentBase(offset));
+        int position = positionOf(offset);
+        if (position + 4 <= segmentSize) {
+            current.putInt(position, ROLL_MARKER);
+        }
+        long next = segmentBase(offset) + segmentSize;
+        try {
+            segments.put(next, map(next));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create outbox segment " + next, e);
+        }
+        return next;
+    }
+
+    private void recover() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        long start = Files.exists(checkpoint) ? ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong() : 0;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SEGMENT_SUFFIX)) {
+                    continue;
+                }
+                long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                if (base + segmentSize <= segmentBase(start)) {
+                    Files.delete(file);
+                } else {
+                    segments.put(base, map(base));
+                }
+            }
+        }
+        if (!segments.containsKey(segmentBase(start))) {
+            segments.put(segmentBase(start), map(segmentBase(start)));
+        }
+
+        // Walk forward from the checkpoint to the last complete record
+        long offset = start;
+        long entries = 0;
+        while (true) {
+            MappedByteBuffer segment = segments.get(segmentBase(offset));
+            int position = positionOf(offset);
+            int length = position + HEADER_SIZE <= segmentSize ? segment.getInt(position) : ROLL_MARKER;
+            if (length == ROLL_MARKER) {
+                // Only follow the roll if the next segment got its first record; otherwise appends resume here
+                MappedByteBuffer next = segments.get(segmentBase(offset) + segmentSize);
+                if (next == null || next.getInt(0) == 0) {
+                    break;
+                }
+                offset = segmentBase(offset) + segmentSize;
+                continue;
+            }
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + HEADER_SIZE + length > segmentSize || !checksumMatches(segment, position, length)) {
+                // Torn write from a crash: clear it so later appends cannot be confused with its remains
+                logger.warn("⚠️ Outbox truncated at offset {} (incomplete record)", offset);
+                for (int i = position; i < segmentSize; i++) {
+                    segment.put(i, (byte) 0);
+                }
+                break;
+            }
+            offset += HEADER_SIZE + length;
+            entries++;
+        }
+
+        this.checkpointOffset = start;
+        this.writeOffset = offset;
+        this.pendingEntries = entries;
+        if (entries > 0) {
+            logger.info("📦 Outbox recovered {} undelivered entries from {}", entries, directory);
+        }
+    }
+
+    private boolean checksumMatches(ByteBuffer segment, int position, int length) {
+        byte[] record = new byte[length];
+        segment.get(position + HEADER_SIZE, record);
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        return (int) crc.getValue() == segment.getInt(position + 4);
+    }
+
+    private MappedByteBuffer map(long base) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(base),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private long segmentIndex(long offset) {
+        return offset / segmentSize;
+    }
+
+    private long segmentBase(long offset) {
+        return segmentIndex(offset) * segmentSize;
+    }
+
+    private int positionOf(long offset) {
+        return (int) (offset % segmentSize);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static final class Entry {
+        private final String id;
+        private final String routingKey;
+        private final byte[] body;
+        private final long appendedAt;
+        private final long nextOffset;
+
+        private Entry(String id, String routingKey, byte[] body, long appendedAt, long nextOffset) {
+            this.id = id;
+            this.routingKey = routingKey;
+            this.body = body;
+            this.appendedAt = appendedAt;
+            this.nextOffset = nextOffset;
+        }
+
+        public String getId() { return id; }
+        public String getRoutingKey() { return routingKey; }
+        public byte[] getBody() { return body; }
+        public long getAppendedAt() { return appendedAt; }
+        public long getNextOffset() { return nextOffset; }
+    }
+}
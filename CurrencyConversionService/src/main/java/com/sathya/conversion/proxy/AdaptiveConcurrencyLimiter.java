@@ -0,0 +1,159 @@
+package com.sathya.conversion.proxy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latency-based (TCP Vegas style) limit on concurrent exchange-service calls.
+ *
+ * Every completed call reports its round-trip time. The lowest RTT of the current and
+ * previous BASELINE_WINDOW is taken as the no-load RTT, and the queue building up at the
+ * exchange service is estimated as limit * (1 - rttNoLoad / rtt): a long queue (or a
+ * failed or timed-out call) shrinks the limit, a short one grows it while the limit is
+ * actually in use. Calls beyond the limit are not attempted; tryAcquire returns null
+ * and the caller falls back. Because the baseline only covers the last one to two
+ * windows, a service that got slower for good is not throttled forever.
+ *
+ * Current limit, in-flight calls and RTTs are exposed as currency.exchange.limiter.*.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long BASELINE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Written under the lock in onSample, read without it
+    private volatile double limit;
+    private volatile long rttNoLoadNanos;
+    private volatile long lastRttNanos;
+    private long windowStartNanos = System.nanoTime();
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private long previousWindowMinRttNanos = Long.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, MeterRegistry meterRegistry) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+
+        this.rejected = Counter.builder("currency.exchange.limiter.rejected")
+                .description("Exchange-service calls not attempted because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("currency.exchange.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent exchange-service calls")
+                .register(meterRegistry);
+        Gauge.builder("currency.exchange.limiter.inflight", inFlight, AtomicInteger::get)
+                .description("Exchange-service calls admitted by the limiter and not yet finished")
+                .register(meterRegistry);
+        TimeGauge.builder("currency.exchange.limiter.rtt", this, TimeUnit.NANOSECONDS, limiter -> limiter.lastRttNanos)
+                .description("Round-trip time of the latest exchange-service call")
+                .register(meterRegistry);
+        TimeGauge.builder("currency.exchange.limiter.rtt.noload", this, TimeUnit.NANOSECONDS, limiter -> limiter.rttNoLoadNanos)
+                .description("Lowest recent round-trip time, taken as the exchange service's unloaded latency")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A permit for one call, or null (and counted as rejected) when the limit is reached.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1, System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        lock.lock();
+        try {
+            updateLimit(rttNanos, inFlightAtStart, dropped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rttNanos, int inFlightAtStart, boolean dropped) {
+        double current = limit;
+        if (!dropped) {
+            lastRttNanos = rttNanos;
+            long now = System.nanoTime();
+            if (now - windowStartNanos >= BASELINE_WINDOW_NANOS) {
+                previousWindowMinRttNanos = windowMinRttNanos;
+                windowMinRttNanos = Long.MAX_VALUE;
+                windowStartNanos = now;
+            }
+            windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+            rttNoLoadNanos = Math.min(windowMinRttNanos, previousWindowMinRttNanos);
+        }
+
+        int log = Math.max(1, (int) Math.log10(current));
+        double next;
+        if (dropped) {
+            next = current - log;
+        } else {
+            double queue = Math.ceil(current * (1 - (double) rttNoLoadNanos / rttNanos));
+            int alpha = 3 * log;
+            int beta = 6 * log;
+            if (queue > beta) {
+                next = current - log;
+            } else if (inFlightAtStart * 2 < current) {
+                // Not using the limit we have: no evidence that a higher one would be safe
+                return;
+            } else if (queue <= log) {
+                next = current + beta;
+            } else if (queue < alpha) {
+                next = current + log;
+            } else {
+                return;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * One admitted call; release (or ignore) exactly once.
+     */
+    public class Permit {
+
+        private final int inFlightAtStart;
+        private final long startNanos;
+
+        private Permit(int inFlightAtStart, long startNanos) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        public void release(boolean dropped) {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+        }
+
+        // Ends the call without using it as a sample
+        public void ignore() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -4,16 +4,29 @@ import com.sathya.conversion.model.CurrencyConversion;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "currency-exchange-service")
+import java.util.List;
+
+// Not primary: callers get ResilientExchangeProxy, which wraps this client
+@FeignClient(name = "currency-exchange-service", qualifiers = CurrencyExchangeProxy.FEIGN_CLIENT, primary = false)
 public interface CurrencyExchangeProxy {
 
+    String FEIGN_CLIENT = "currencyExchangeFeignClient";
+
     @GetMapping("/currency-exchange/from/{from}/to/{to}")
     CurrencyConversion retrieveExchangeValue(
         @PathVariable("from") String from,
         @PathVariable("to") String to
     );
     
+    // One round trip for many targets; unknown pairs are simply absent from the result
+    @GetMapping("/currency-exchange/from/{from}/batch")
+    List<CurrencyConversion> retrieveExchangeValues(
+        @PathVariable("from") String from,
+        @RequestParam("to") List<String> to
+    );
+    
     @GetMapping("/currency-exchange/health")
     String healthCheck();
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+package com.sathya.conversion.proxy;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.openfeign.FeignClientBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hedged exchange-rate lookups (exchange-hedging.enabled=true).
+ *
+ * A lookup goes to one instance picked by the load balancer. If it has not answered
+ * after the delay-percentile of recent lookup latencies, the same lookup is sent to a
+ * different instance; the first successful answer is used and the other call is
+ * cancelled. Hedges are paid for out of a budget that earns budget-percent of a hedge
+ * per lookup (at most MAX_BUDGET hedges banked), so a slow service sees at most that
+ * much extra load. Only idempotent reads go through here.
+ *
+ * Outcomes are counted in currency.exchange.hedge{outcome}, the current delay is
+ * currency.exchange.hedge.delay.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange-hedging.enabled", havingValue = "true")
+public class HedgingExchangeClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingExchangeClient.class);
+
+    static final String SERVICE_ID = "currency-exchange-service";
+    static final double MAX_BUDGET = 10;
+    // The budget is kept in millionths of a hedge so it fits a CAS on one long
+    private static final long BUDGET_UNIT = 1_000_000;
+    private static final long MAX_BUDGET_UNITS = (long) (MAX_BUDGET * BUDGET_UNIT);
+    // Latencies needed before the percentile is trusted; until then nothing is hedged
+    static final int MIN_SAMPLES = 20;
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int CHOOSE_ATTEMPTS = 3;
+
+    private final LoadBalancerClient loadBalancer;
+    private final Function<ServiceInstance, CurrencyExchangeProxy> clientFactory;
+    private final Map<URI, CurrencyExchangeProxy> clients = new ConcurrentHashMap<>();
+    private final long minDelayNanos;
+    private final long budgetUnitsPerCall;
+    private final ScheduledExecutorService timer;
+    private final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+
+    private final Timer latency;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter budgetExhausted;
+    private final Counter noOtherInstance;
+    private final Counter rejected;
+
+    private final AtomicLong budgetUnits = new AtomicLong(MAX_BUDGET_UNITS);
+    private volatile long delayNanos;
+    private volatile long delayComputedAt;
+
+    @Autowired
+    public HedgingExchangeClient(LoadBalancerClient loadBalancer,
+                                 ApplicationContext applicationContext,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${exchange-hedging.delay-percentile:0.95}") double percentile,
+                                 @Value("${exchange-hedging.min-delay:10ms}") Duration minDelay,
+                                 @Value("${exchange-hedging.budget-percent:10}") double budgetPercent) {
+        this(loadBalancer, instanceClients(applicationContext), meterRegistry, percentile, minDelay, budgetPercent);
+    }
+
+    HedgingExchangeClient(LoadBalancerClient loadBalancer,
+                          Function<ServiceInstance, CurrencyExchangeProxy> clientFactory,
+                          MeterRegistry meterRegistry,
+                          double percentile,
+                          Duration minDelay,
+                          double budgetPercent) {
+        this.loadBalancer = loadBalancer;
+        this.clientFactory = clientFactory;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budgetUnitsPerCall = Math.round(budgetPercent / 100 * BUDGET_UNIT);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exchange-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.latency = Timer.builder("currency.exchange.hedge.latency")
+                .description("Latency of answered exchange-rate lookups, per instance call")
+                .publishPercentiles(percentile)
+                .register(meterRegistry);
+        this.sent = outcome(meterRegistry, "sent");
+        this.won = outcome(meterRegistry, "won");
+        this.budgetExhausted = outcome(meterRegistry, "budget_exhausted");
+        this.noOtherInstance = outcome(meterRegistry, "no_other_instance");
+        this.rejected = outcome(meterRegistry, "rejected");
+        TimeGauge.builder("currency.exchange.hedge.delay", this, TimeUnit.NANOSECONDS, client -> client.delayNanos)
+                .description("How long a lookup waits before it is hedged")
+                .register(meterRegistry);
+        logger.info("🪁 Exchange-rate lookups hedged after p{} latency, budget {}%", percentile * 100, budgetPercent);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("currency.exchange.hedge")
+                .description("Hedged exchange-rate lookups by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Feign clients with the usual encoders, decoders and observation, bound to one instance
+    private static Function<ServiceInstance, CurrencyExchangeProxy> instanceClients(ApplicationContext applicationContext) {
+        FeignClientBuilder builder = new FeignClientBuilder(applicationContext);
+        return instance -> builder.forType(CurrencyExchangeProxy.class, SERVICE_ID)
+                .url(instance.getUri().toString())
+                .build();
+    }
+
+    /**
+     * Runs the lookup on the executor, hedging it once if it is slow. The returned future
+     * completes with the first answer; cancelling it cancels both calls. Falls back to
+     * the given load-balanced client when the load balancer has no instance to offer.
+     */
+    public <T> Future<T> submit(ExecutorService executor, CurrencyExchangeProxy loadBalanced,
+                                Function<CurrencyExchangeProxy, T> lookup) {
+        ServiceInstance first = loadBalancer.choose(SERVICE_ID);
+        if (first == null) {
+            return executor.submit(() -> lookup.apply(loadBalanced));
+        }
+        deposit();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        Future<?> primary = executor.submit(() -> attempt(first, lookup, result, outstanding, false));
+
+        long delay = currentDelayNanos();
+        ContextSnapshot context = snapshots.captureAll();
+        CompletableFuture<Future<?>> hedge = new CompletableFuture<>();
+        ScheduledFuture<?> scheduled = delay == 0 ? null : timer.schedule(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            ServiceInstance second = chooseOther(first);
+            if (second == null) {
+                noOtherInstance.increment();
+            } else if (!withdraw()) {
+                budgetExhausted.increment();
+            } else {
+                outstanding.incrementAndGet();
+                try {
+                    hedge.complete(executor.submit(context.wrap(() -> attempt(second, lookup, result, outstanding, true))));
+                    sent.increment();
+                } catch (RejectedExecutionException e) {
+                    rejected.increment();
+                    fail(result, outstanding, e);
+                }
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+
+        result.whenComplete((value, failure) -> {
+            primary.cancel(true);
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            hedge.thenAccept(call -> call.cancel(true));
+        });
+        return result;
+    }
+
+    private <T> void attempt(ServiceInstance instance, Function<CurrencyExchangeProxy, T> lookup,
+                             CompletableFuture<T> result, AtomicInteger outstanding, boolean isHedge) {
+        long start = System.nanoTime();
+        try {
+            // Through the load balancer so its request lifecycle (and statistics) see the call
+            T value = loadBalancer.execute(SERVICE_ID, instance, chosen -> lookup.apply(clientFor(chosen)));
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (result.complete(value) && isHedge) {
+                won.increment();
+            }
+        } catch (Throwable e) {
+            if (!result.isDone()) {
+                fail(result, outstanding, e);
+            }
+        }
+    }
+
+    // The lookup fails once no call that could still answer is left
+    private static void fail(CompletableFuture<?> result, AtomicInteger outstanding, Throwable e) {
+        if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(e instanceof RuntimeException || e instanceof Error
+                    ? e : new RuntimeException("Exchange service call failed: " + e, e));
+        }
+    }
+
+    private CurrencyExchangeProxy clientFor(ServiceInstance instance) {
+        return clients.computeIfAbsent(instance.getUri(), uri -> clientFactory.apply(instance));
+    }
+
+    private ServiceInstance chooseOther(ServiceInstance first) {
+        for (int i = 0; i < CHOOSE_ATTEMPTS; i++) {
+            ServiceInstance candidate = loadBalancer.choose(SERVICE_ID);
+            if (candidate != null && !Objects.equals(candidate.getUri(), first.getUri())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // 0 while there are too few samples: the lookup is not hedged
+    long currentDelayNanos() {
+        long now = System.nanoTime();
+        if (delayNanos == 0 || now - delayComputedAt >= DELAY_REFRESH_NANOS) {
+            delayComputedAt = now;
+            long computed = 0;
+            if (latency.count() >= MIN_SAMPLES) {
+                for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                    computed = Math.max(minDelayNanos, (long) value.value(TimeUnit.NANOSECONDS));
+                }
+            }
+            delayNanos = computed;
+        }
+        return delayNanos;
+    }
+
+    private void deposit() {
+        budgetUnits.accumulateAndGet(budgetUnitsPerCall, (budget, amount) -> Math.min(MAX_BUDGET_UNITS, budget + amount));
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long budget = budgetUnits.get();
+            if (budget < BUDGET_UNIT) {
+                return false;
+            }
+            if (budgetUnits.compareAndSet(budget, budget - BUDGET_UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,171 @@
+package com.sathya.conversion.proxy;
+
+import com.sathya.conversion.model.CurrencyConversion;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The CurrencyExchangeProxy everything else injects: the Feign client behind the
+ * currencyExchange circuit breaker, an adaptive concurrency limit, a thread-pool
+ * bulkhead and the currencyExchange time limiter (in that order, outermost first).
+ *
+ * While the circuit is open calls fail with CallNotPermittedException before any
+ * thread hop or network I/O, so callers drop into their fallbacks immediately.
+ * Calls beyond the adaptive limit (exchange-limiter.*, see AdaptiveConcurrencyLimiter),
+ * which shrinks as the exchange service's latency grows, are rejected with
+ * RejectedExecutionException. Otherwise the call runs on the bulkhead pool
+ * (exchange-bulkhead.*), a fixed upper bound that also rejects when full, and the
+ * caller stops waiting after the time limiter's timeout-duration. With
+ * exchange-hedging.enabled=true, slow rate lookups are additionally hedged to a second
+ * instance on the same pool (see HedgingExchangeClient).
+ *
+ * Circuit breaker and time limiter state are in the actuator circuitbreakers and
+ * timelimiters endpoints and the resilience4j.* metrics; the limiter and bulkhead
+ * are in currency.exchange.limiter.* and currency.exchange.bulkhead.*.
+ */
+@Primary
+@Component
+public class ResilientExchangeProxy implements CurrencyExchangeProxy {
+
+    public static final String INSTANCE = "currencyExchange";
+
+    private final CurrencyExchangeProxy delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final TimeLimiter timeLimiter;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ThreadPoolExecutor bulkhead;
+    private final ExecutorService bulkheadExecutor;
+    private final HedgingExchangeClient hedging;
+    private final Counter rejected;
+
+    public ResilientExchangeProxy(@Qualifier(CurrencyExchangeProxy.FEIGN_CLIENT) CurrencyExchangeProxy delegate,
+                                  CircuitBreakerRegistry circuitBreakerRegistry,
+                                  TimeLimiterRegistry timeLimiterRegistry,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${exchange-bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+                                  @Value("${exchange-bulkhead.queue-capacity:20}") int queueCapacity,
+                                  @Value("${exchange-limiter.initial-limit:10}") int initialLimit,
+                                  @Value("${exchange-limiter.min-limit:1}") int minLimit,
+                                  @Value("${exchange-limiter.max-limit:40}") int maxLimit,
+                                  @Nullable HedgingExchangeClient hedging) {
+        this.delegate = delegate;
+        this.hedging = hedging;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        this.timeLimiter = timeLimiterRegistry.timeLimiter(INSTANCE);
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, meterRegistry);
+        this.rejected = Counter.builder("currency.exchange.bulkhead.rejected")
+                .description("Exchange-service calls rejected because the bulkhead was full")
+                .register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.bulkhead = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "exchange-call-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Exchange-service bulkhead full");
+                });
+        bulkhead.allowCoreThreadTimeOut(true);
+        // Carries the caller's trace context over to the pool thread
+        this.bulkheadExecutor = ContextExecutorService.wrap(bulkhead);
+
+        Gauge.builder("currency.exchange.bulkhead.active", bulkhead, ThreadPoolExecutor::getActiveCount)
+                .description("Exchange-service calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("currency.exchange.bulkhead.queued", bulkhead, executor -> executor.getQueue().size())
+                .description("Exchange-service calls waiting for a bulkhead thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CurrencyConversion retrieveExchangeValue(String from, String to) {
+        return call(proxy -> proxy.retrieveExchangeValue(from, to), true);
+    }
+
+    @Override
+    public List<CurrencyConversion> retrieveExchangeValues(String from, List<String> to) {
+        return call(proxy -> proxy.retrieveExchangeValues(from, to), true);
+    }
+
+    @Override
+    public String healthCheck() {
+        return call(CurrencyExchangeProxy::healthCheck, false);
+    }
+
+    private <T> T call(Function<CurrencyExchangeProxy, T> call, boolean hedgeable) {
+        try {
+            return circuitBreaker.executeCallable(() -> limited(call, hedgeable));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calling the exchange service", e);
+        } catch (Exception e) {
+            // TimeoutException from the time limiter, or a checked failure of the call itself
+            throw new RuntimeException("Exchange service call failed: " + e, e);
+        }
+    }
+
+    private <T> T limited(Function<CurrencyExchangeProxy, T> call, boolean hedgeable) throws Exception {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            throw new RejectedExecutionException("Exchange-service concurrency limit reached (" + limiter.getLimit() + ")");
+        }
+        try {
+            T result = timeLimiter.executeFutureSupplier(() -> submit(call, hedgeable));
+            permit.release(false);
+            return result;
+        } catch (FeignException.FeignClientException e) {
+            // A 4xx answer says nothing about how loaded the service is
+            permit.ignore();
+            throw e;
+        } catch (Throwable e) {
+            // Timeouts, 5xx, I/O errors and a full bulkhead: treat as overload
+            permit.release(true);
+            throw e;
+        }
+    }
+
+    private <T> Future<T> submit(Function<CurrencyExchangeProxy, T> call, boolean hedgeable) {
+        if (hedgeable && hedging != null) {
+            return hedging.submit(bulkheadExecutor, delegate, call);
+        }
+        return bulkheadExecutor.submit(() -> call.apply(delegate));
+    }
+
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkhead.shutdownNow();
+    }
+}
@@ -0,0 +1,127 @@
+package com.sathya.conversion.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Runs the per-item work of a bulk request concurrently on a shared bounded pool.
+ *
+ * Each request gets at most max-concurrency-per-request workers, which pull the next
+ * item by index, so one large request cannot take the whole pool. Results come back in
+ * input order. An item that fails, or is not finished by the deadline, gets its
+ * fallback instead.
+ */
+@Component
+public class BulkExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkExecutor.class);
+
+    private final ExecutorService executor;
+    private final int maxConcurrencyPerRequest;
+    private final Duration deadline;
+
+    @Autowired
+    public BulkExecutor(@Value("${bulk.executor.threads:32}") int threads,
+                        @Value("${bulk.executor.queue-size:1000}") int queueSize,
+                        @Value("${bulk.max-concurrency-per-request:8}") int maxConcurrencyPerRequest,
+                        @Value("${bulk.deadline:5s}") Duration deadline) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-convert-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.maxConcurrencyPerRequest = Math.max(1, maxConcurrencyPerRequest);
+        this.deadline = deadline;
+    }
+
+    /**
+     * Apply task to every input, in parallel, within the configured deadline.
+     * fallback receives the input and the failure (a TimeoutException past the deadline).
+     */
+    public <T, R> List<R> map(List<T> inputs, Function<T, R> task, BiFunction<T, Throwable, R> fallback) {
+        int size = inputs.size();
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(size);
+        AtomicInteger nextIndex = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(size);
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        Runnable worker = () -> {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < size && System.nanoTime() < deadlineNanos) {
+                T input = inputs.get(index);
+                R result;
+                try {
+                    result = task.apply(input);
+                } catch (Exception e) {
+                    result = fallback.apply(input, e);
+                }
+                results.compareAndSet(index, null, result);
+                done.countDown();
+            }
+        };
+
+        int workers = Math.min(size, maxConcurrencyPerRequest);
+        int started = 0;
+        for (; started < workers; started++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                logger.warn("⚠️ Bulk executor saturated, running request with {} of {} workers", started, workers);
+                break;
+            }
+        }
+        if (started == 0 && size > 0) {
+            // Nothing could be queued: do the work on the calling thread rather than fail everything
+            worker.run();
+        }
+
+        try {
+            if (!done.await(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("⏱️ Bulk deadline of {} reached with {} of {} items unfinished", deadline, done.getCount(), size);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Stop workers picking up new items, then fill anything unfinished with its fallback
+        nextIndex.set(size);
+        List<R> ordered = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            R result = results.get(i);
+            if (result == null) {
+                T input = inputs.get(i);
+                results.compareAndSet(i, null, fallback.apply(input, new TimeoutException("Bulk deadline of " + deadline + " exceeded")));
+                result = results.get(i);
+            }
+            ordered.add(result);
+        }
+        return ordered;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.sathya.conversion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sathya.conversion.model.ConversionRequest;
+import com.sathya.conversion.model.CurrencyConversion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streaming bulk conversion: reads (from, to, amount) NDJSON lines from the request body
+ * one at a time and emits each result as soon as it and everything before it is done.
+ *
+ * Lines are only read as downstream demand allows (at most concurrency + prefetch items
+ * in flight), and the servlet response requests one result at a time, so memory stays
+ * flat however large the input and a slow client slows reading of the body.
+ */
+@Service
+public class BulkStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkStreamService.class);
+    
+    @Autowired
+    private CurrencyService currencyService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final Scheduler scheduler;
+    private final int concurrency;
+    
+    private final Timer firstResult;
+    private final Timer streamDuration;
+    private final Counter items;
+    
+    public BulkStreamService(MeterRegistry meterRegistry,
+                             @Value("${bulk.stream.concurrency:8}") int concurrency,
+                             @Value("${bulk.stream.threads:16}") int threads) {
+        this.concurrency = Math.max(1, concurrency);
+        this.scheduler = Schedulers.newBoundedElastic(threads, 10_000, "bulk-stream");
+        
+        this.firstResult = Timer.builder("currency.bulk.stream.first.result")
+                .description("Time from request start to the first streamed result")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.streamDuration = Timer.builder("currency.bulk.stream.duration")
+                .description("Time from request start to the last streamed result")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.items = Counter.builder("currency.bulk.stream.items")
+                .description("Conversions emitted by streaming bulk requests")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Convert every NDJSON line of the body, in input order. Malformed lines yield an
+     * INVALID_REQUEST entry in their position rather than failing the whole stream.
+     */
+    public Flux<CurrencyConversion> convert(InputStream body) {
+        Flux<String> lines = Flux.using(
+                () -> new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)),
+                reader -> Flux.fromStream(reader.lines()),
+                BulkStreamService::closeQuietly)
+            .filter(line -> !line.isBlank())
+            .subscribeOn(scheduler);
+        
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean(true);
+            
+            return lines
+                .flatMapSequential(line -> Mono.fromCallable(() -> convertLine(line)).subscribeOn(scheduler),
+                                   concurrency, 1)
+                .doOnNext(result -> {
+                    items.increment();
+                    if (first.compareAndSet(true, false)) {
+                        firstResult.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                })
+                .doOnComplete(() -> streamDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+    
+    private CurrencyConversion convertLine(String line) {
+        ConversionRequest request;
+        try {
+            request = objectMapper.readValue(line, ConversionRequest.class);
+        } catch (IOException e) {
+            logger.warn("⚠️ Malformed bulk stream line: {}", e.getMessage());
+            return invalid(null, "malformed line");
+        }
+        
+        if (request.getFrom() == null || request.getTo() == null || request.getAmount() == null) {
+            return invalid(request, "from, to and amount are required");
+        }
+        
+        try {
+            return currencyService.convertCurrency(request.getFrom(), request.getTo(), request.getAmount());
+        } catch (Exception e) {
+            logger.warn("Failed to convert {} to {}: {}", request.getFrom(), request.getTo(), e.getMessage());
+            return currencyService.createBulkFallback(request.getFrom(), request.getTo(), request.getAmount());
+        }
+    }
+    
+    private CurrencyConversion invalid(ConversionRequest request, String reason) {
+        CurrencyConversion conversion = new CurrencyConversion();
+        if (request != null) {
+            conversion.setFrom(request.getFrom());
+            conversion.setTo(request.getTo());
+            conversion.setQuantity(request.getAmount());
+        }
+        conversion.setEnvironment("INVALID_REQUEST - " + reason);
+        return conversion;
+    }
+    
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,189 @@
+package com.sathya.conversion.service;
+
+import com.rabbitmq.client.Channel;
+import com.sathya.conversion.config.RabbitMQConfig;
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.model.CurrencyConversionMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the ASYNC_REQUEST conversions queued by convertAndSendAsync on
+ * currency-conversion-request-queue.
+ *
+ * Messages arrive in batches (see conversion-worker.* and ConversionWorkerConfig). Rates are looked up once per batch: cached pairs come from the
+ * RateCache and the rest in one batch call per source currency. Each completed
+ * conversion is published like a synchronous one, under the request's conversion id.
+ *
+ * Acknowledgement is manual and per message: a message that cannot be read, is
+ * incomplete or cannot be converted is rejected without requeue, which dead-letters
+ * it to currency-dead-letter-queue. That includes requests for a pair the exchange
+ * service could not rate: FALLBACK_RATES are never published as a completed conversion.
+ */
+@Service
+public class ConversionWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionWorker.class);
+
+    private static final String ASYNC_REQUEST = "ASYNC_REQUEST";
+
+    private final CurrencyService currencyService;
+    private final MessageProducer messageProducer;
+    private final MessageConverter messageConverter;
+
+    private final Counter converted;
+    private final Counter deadLettered;
+    private final Timer batchTimer;
+
+    public ConversionWorker(CurrencyService currencyService,
+                            MessageProducer messageProducer,
+                            MessageConverter messageConverter,
+                            MeterRegistry meterRegistry) {
+        this.currencyService = currencyService;
+        this.messageProducer = messageProducer;
+        this.messageConverter = messageConverter;
+        this.converted = outcomeCounter(meterRegistry, "converted");
+        this.deadLettered = outcomeCounter(meterRegistry, "dead_lettered");
+        this.batchTimer = Timer.builder("currency.worker.batch")
+                .description("Time to convert, publish and acknowledge one batch of queued conversions")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("currency.worker.messages")
+                .tag("outcome", outcome)
+                .description("Messages consumed from currency-conversion-request-queue by outcome")
+                .register(meterRegistry);
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.CONVERSION_REQUEST_QUEUE, containerFactory = "conversionWorkerContainerFactory")
+    public void onConversionRequests(List<Message> messages, Channel channel) throws IOException {
+        long start = System.nanoTime();
+
+        // Delivery tag -> request, in delivery order; anything not worth converting is settled here
+        Map<Long, CurrencyConversionMessage> requests = new LinkedHashMap<>();
+        Set<Long> failedTags = new HashSet<>();
+        for (Message message : messages) {
+            long tag = message.getMessageProperties().getDeliveryTag();
+            CurrencyConversionMessage request = read(message);
+            if (request == null) {
+                failedTags.add(tag);
+            } else {
+                requests.put(tag, request);
+            }
+        }
+
+        Map<String, CurrencyConversion> rates = lookUpRates(requests.values());
+
+        int completed = 0;
+        for (Map.Entry<Long, CurrencyConversionMessage> entry : requests.entrySet()) {
+            CurrencyConversionMessage request = entry.getValue();
+            CurrencyConversion rate = rates.get(pairKey(request.getFromCurrency(), request.getToCurrency()));
+            if (rate == null) {
+                logger.warn("⚠️ No exchange rate for {} -> {}, dead-lettering async conversion {}",
+                            request.getFromCurrency(), request.getToCurrency(), request.getConversionId());
+                failedTags.add(entry.getKey());
+                continue;
+            }
+            try {
+                CurrencyConversion result = currencyService.calculateConversion(
+                        rate, request.getFromCurrency(), request.getToCurrency(), request.getAmount());
+                result.setId(request.getConversionId());
+                messageProducer.sendConversionMessage(currencyService.toConversionMessage(result, "CONVERSION_COMPLETED"));
+                converted.increment();
+                completed++;
+            } catch (Exception e) {
+                logger.error("❌ Async conversion {} failed, dead-lettering: {}", request.getConversionId(), e.getMessage());
+                failedTags.add(entry.getKey());
+            }
+        }
+
+        acknowledge(messages, failedTags, channel);
+        deadLettered.increment(failedTags.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.info("⚙️ Processed batch of {} messages: {} converted, {} dead-lettered",
+                    messages.size(), completed, failedTags.size());
+    }
+
+    // Null (and logged) if the message is not a complete conversion request
+    private CurrencyConversionMessage read(Message message) {
+        try {
+            Object payload = messageConverter.fromMessage(message);
+            if (payload instanceof CurrencyConversionMessage request
+                    && ASYNC_REQUEST.equals(request.getStatus()) && isComplete(request)) {
+                return request;
+            }
+            logger.warn("⚠️ Dead-lettering invalid conversion request: {}", payload);
+        } catch (Exception e) {
+            logger.warn("⚠️ Dead-lettering unreadable message {}: {}", message.getMessageProperties().getMessageId(), e.getMessage());
+        }
+        return null;
+    }
+
+    private static boolean isComplete(CurrencyConversionMessage request) {
+        return request.getFromCurrency() != null && request.getToCurrency() != null
+                && request.getAmount() != null && request.getAmount().signum() >= 0;
+    }
+
+    /**
+     * One rate per distinct pair in the batch: cached rates first, the rest in one call per
+     * source currency. Pairs the exchange service could not provide are left out.
+     */
+    private Map<String, CurrencyConversion> lookUpRates(Iterable<CurrencyConversionMessage> requests) {
+        Map<String, Set<String>> targetsBySource = new LinkedHashMap<>();
+        for (CurrencyConversionMessage request : requests) {
+            targetsBySource.computeIfAbsent(request.getFromCurrency().toUpperCase(), from -> new LinkedHashSet<>())
+                           .add(request.getToCurrency().toUpperCase());
+        }
+
+        Map<String, CurrencyConversion> rates = new HashMap<>();
+        targetsBySource.forEach((from, targets) -> {
+            Map<String, CurrencyConversion> ratesByTarget = currencyService.fetchRatesOrEmpty(from, new ArrayList<>(targets));
+            ratesByTarget.forEach((to, rate) -> rates.put(pairKey(from, to), rate));
+        });
+        return rates;
+    }
+
+    private static void acknowledge(List<Message> messages, Set<Long> failedTags, Channel channel) throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (failedTags.isEmpty()) {
+            // Everything succeeded: one cumulative ack for the batch
+            channel.basicAck(messages.get(messages.size() - 1).getMessageProperties().getDeliveryTag(), true);
+            return;
+        }
+        for (Message message : messages) {
+            long tag = message.getMessageProperties().getDeliveryTag();
+            if (failedTags.contains(tag)) {
+                // No requeue: the queue's dead-letter exchange routes it to currency-dead-letter-queue
+                channel.basicNack(tag, false, false);
+            } else {
+                channel.basicAck(tag, false);
+            }
+        }
+    }
+
+    private static String pairKey(String from, String to) {
+        return from.toUpperCase() + "-" + to.toUpperCase();
+    }
+}
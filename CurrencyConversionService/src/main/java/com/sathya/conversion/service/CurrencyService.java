@@ -1,10 +1,12 @@
 package com.sathya.conversion.service;
 
+import com.sathya.conversion.cache.RateCache;
 import com.sathya.conversion.model.CurrencyConversion;
 import com.sathya.conversion.model.CurrencyConversionMessage;
 import com.sathya.conversion.proxy.CurrencyExchangeProxy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -39,6 +41,15 @@ public class CurrencyService {
     
     @Autowired
     private MessageProducer messageProducer;
+    
+    @Autowired
+    private RateCache rateCache;
+    
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+    
+    @Autowired
+    private BulkExecutor bulkExecutor;
 
     public CurrencyConversion convertCurrency(String from, String to, BigDecimal quantity) {
         logger.info("Converting currency: {} to {} quantity: {}", from, to, quantity);
@@ -46,6 +57,25 @@ public class CurrencyService {
         // Try to call the exchange service
         CurrencyConversion exchangeValue = callExchangeServiceOrFallback(from, to);
         
+        return completeConversion(exchangeValue, from, to, quantity);
+    }
+    
+    /**
+     * Apply a rate to the quantity, publish the result and return it
+     */
+    private CurrencyConversion completeConversion(CurrencyConversion exchangeValue, String from, String to, BigDecimal quantity) {
+        CurrencyConversion conversion = calculateConversion(exchangeValue, from, to, quantity);
+        
+        // ✅ Send message to RabbitMQ
+        sendConversionMessageToQueue(conversion);
+        
+        return conversion;
+    }
+    
+    /**
+     * Apply a rate to the quantity (no I/O; shared with the reactive pipeline)
+     */
+    CurrencyConversion calculateConversion(CurrencyConversion exchangeValue, String from, String to, BigDecimal quantity) {
         // Calculate total amount
         BigDecimal totalAmount = quantity.multiply(exchangeValue.getConversionMultiple())
                                        .setScale(2, RoundingMode.HALF_UP);
@@ -62,10 +92,6 @@ public class CurrencyService {
         );
         
         logger.info("Final conversion result: {}", conversion);
-        
-        // ✅ Send message to RabbitMQ
-        sendConversionMessageToQueue(conversion);
-        
         return conversion;
     }
     
@@ -84,8 +110,9 @@ public class CurrencyService {
             tempConversion.setQuantity(quantity);
             tempConversion.setEnvironment("ASYNC_REQUEST");
             
-            // Send to queue for async processing
-            sendConversionMessageToQueue(tempConversion);
+            // Send to the request queue for ConversionWorker; unlike completed conversions, a request
+            // that cannot be written to the outbox must fail so the caller knows it was not accepted
+            messageProducer.sendConversionRequest(toConversionMessage(tempConversion, "ASYNC_REQUEST"));
             
             logger.info("✅ Async conversion queued successfully for {}/{}", from, to);
             
@@ -98,35 +125,46 @@ public class CurrencyService {
     /**
      * Send conversion message to RabbitMQ
      */
-    private void sendConversionMessageToQueue(CurrencyConversion conversion) {
+    void sendConversionMessageToQueue(CurrencyConversion conversion) {
         try {
-            CurrencyConversionMessage message = new CurrencyConversionMessage(
-                conversion.getId(),
-                conversion.getFrom(),
-                conversion.getTo(),
-                conversion.getQuantity(),
-                conversion.getTotalCalculatedAmount(),
-                conversion.getConversionMultiple(),
-                "CONVERSION_COMPLETED"
-            );
-            
-            messageProducer.sendConversionMessage(message);
-            logger.info("📤 Message sent to RabbitMQ for conversion ID: {}", conversion.getId());
+            messageProducer.sendConversionMessage(toConversionMessage(conversion, "CONVERSION_COMPLETED"));
+            logger.info("📤 Message queued for RabbitMQ for conversion ID: {}", conversion.getId());
             
         } catch (Exception e) {
             logger.error("❌ Failed to send message to RabbitMQ: {}", e.getMessage());
             // Don't throw exception - message failure shouldn't break the main conversion
         }
     }
+    
+    CurrencyConversionMessage toConversionMessage(CurrencyConversion conversion, String status) {
+        return new CurrencyConversionMessage(
+            conversion.getId(),
+            conversion.getFrom(),
+            conversion.getTo(),
+            conversion.getQuantity(),
+            conversion.getTotalCalculatedAmount(),
+            conversion.getConversionMultiple(),
+            status
+        );
+    }
 
     /**
      * Use fallback only when exchange service is actually down
      */
     private CurrencyConversion callExchangeServiceOrFallback(String from, String to) {
+        // Cached rates (fresh or within max-staleness) skip the network hop entirely
+        RateCache.CachedRate cached = rateCache.get(from, to);
+        if (cached != null) {
+            logger.debug("Using {} cached rate for {}/{}", cached.getFreshness(), from, to);
+            return cached.toConversion();
+        }
+        
+        long changeSequence = rateCache.changeSequence();
         try {
             logger.info("Attempting to call exchange service for {}/{}", from, to);
             CurrencyConversion result = exchangeProxy.retrieveExchangeValue(from, to);
             logger.info("✅ Exchange service WORKING - Returned: {}", result);
+            rateCache.put(from, to, result, changeSequence);
             
             // Return the actual result when service is working
             return result;
@@ -140,7 +178,7 @@ public class CurrencyService {
     /**
      * Create fallback response with clear environment message
      */
-    private CurrencyConversion createFallbackResponse(String from, String to) {
+    CurrencyConversion createFallbackResponse(String from, String to) {
         String currencyPair = from.toUpperCase() + "-" + to.toUpperCase();
         BigDecimal rate = FALLBACK_RATES.getOrDefault(currencyPair, BigDecimal.valueOf(80.0));
         
@@ -215,35 +253,78 @@ public class CurrencyService {
     public List<CurrencyConversion> bulkConvert(String from, BigDecimal amount, List<String> targetCurrencies) {
         logger.info("Bulk conversion: {} {} to {}", amount, from, targetCurrencies);
         
-        List<CurrencyConversion> results = new ArrayList<>();
+        // One batch call for all targets instead of a round trip per target
+        Map<String, CurrencyConversion> ratesByTarget = fetchRatesOrEmpty(from, targetCurrencies);
         
-        for (String targetCurrency : targetCurrencies) {
-            try {
-                CurrencyConversion conversion = convertCurrency(from, targetCurrency, amount);
-                results.add(conversion);
-            } catch (Exception e) {
+        // Per-target work (calculation + RabbitMQ publishes) runs in parallel, results in input order
+        return bulkExecutor.map(
+            targetCurrencies,
+            targetCurrency -> {
+                // Same fallback as a single conversion when the service is down or lacks the pair
+                CurrencyConversion exchangeValue = ratesByTarget.get(targetCurrency.toUpperCase());
+                if (exchangeValue == null) {
+                    exchangeValue = createFallbackResponse(from, targetCurrency);
+                }
+                return completeConversion(exchangeValue, from, targetCurrency, amount);
+            },
+            (targetCurrency, e) -> {
                 logger.warn("Failed to convert {} to {}: {}", from, targetCurrency, e.getMessage());
-                
-                // Fallback for individual conversion failure in bulk
-                CurrencyConversion fallbackConversion = createFallbackResponse(from, targetCurrency);
-                BigDecimal totalAmount = amount.multiply(fallbackConversion.getConversionMultiple())
-                                             .setScale(2, RoundingMode.HALF_UP);
-                
-                CurrencyConversion conversionWithAmount = new CurrencyConversion(
-                    fallbackConversion.getId(),
-                    from,
-                    targetCurrency,
-                    fallbackConversion.getConversionMultiple(),
-                    amount,
-                    totalAmount,
-                    "Fallback - Individual conversion failed"
-                );
-                
-                results.add(conversionWithAmount);
+                return createBulkFallback(from, targetCurrency, amount);
+            }
+        );
+    }
+    
+    /**
+     * Fallback for individual conversion failure in bulk
+     */
+    CurrencyConversion createBulkFallback(String from, String targetCurrency, BigDecimal amount) {
+        CurrencyConversion fallbackConversion = createFallbackResponse(from, targetCurrency);
+        BigDecimal totalAmount = amount.multiply(fallbackConversion.getConversionMultiple())
+                                     .setScale(2, RoundingMode.HALF_UP);
+        
+        return new CurrencyConversion(
+            fallbackConversion.getId(),
+            from,
+            targetCurrency,
+            fallbackConversion.getConversionMultiple(),
+            amount,
+            totalAmount,
+            "Fallback - Individual conversion failed"
+        );
+    }
+    
+    /**
+     * Rates keyed by target currency: cached ones first, the rest in one batch call.
+     * Targets missing from the map fall back; none are added when the service is down.
+     */
+    Map<String, CurrencyConversion> fetchRatesOrEmpty(String from, List<String> targetCurrencies) {
+        Map<String, CurrencyConversion> ratesByTarget = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        
+        for (String targetCurrency : targetCurrencies) {
+            RateCache.CachedRate cached = rateCache.get(from, targetCurrency);
+            if (cached != null) {
+                ratesByTarget.put(targetCurrency.toUpperCase(), cached.toConversion());
+            } else {
+                uncached.add(targetCurrency);
             }
         }
+        if (uncached.isEmpty()) {
+            return ratesByTarget;
+        }
         
-        return results;
+        long changeSequence = rateCache.changeSequence();
+        try {
+            List<CurrencyConversion> rates = exchangeProxy.retrieveExchangeValues(from, uncached);
+            for (CurrencyConversion rate : rates) {
+                ratesByTarget.put(rate.getTo().toUpperCase(), rate);
+                rateCache.put(from, rate.getTo(), rate, changeSequence);
+            }
+            logger.info("✅ Exchange service returned {} of {} uncached rates for {}", rates.size(), uncached.size(), from);
+        } catch (Exception e) {
+            logger.error("❌ Exchange service UNAVAILABLE for batch lookup: {}. Using FALLBACK data.", e.getMessage());
+        }
+        return ratesByTarget;
     }
 
     public BigDecimal calculateFee(CurrencyConversion conversion, BigDecimal feePercentage) {
@@ -311,15 +392,19 @@ public class CurrencyService {
     }
     
     /**
-     * Check RabbitMQ connection status
+     * Check RabbitMQ connection status. Sends only reach the local outbox, so this asks
+     * the broker directly and reports how many events are still waiting for delivery.
      */
     public String checkRabbitMQConnection() {
+        long pending = messageProducer.pendingCount();
         try {
-            // Try to send a small test message
-            sendTestMessage();
-            return "RabbitMQ Connection Status: CONNECTED ✅";
+            Boolean open = rabbitTemplate.execute(channel -> channel.isOpen());
+            if (Boolean.TRUE.equals(open)) {
+                return "RabbitMQ Connection Status: CONNECTED ✅ - " + pending + " events awaiting delivery";
+            }
+            return "RabbitMQ Connection Status: DISCONNECTED ❌ - channel closed, " + pending + " events awaiting delivery";
         } catch (Exception e) {
-            return "RabbitMQ Connection Status: DISCONNECTED ❌ - " + e.getMessage();
+            return "RabbitMQ Connection Status: DISCONNECTED ❌ - " + e.getMessage() + ", " + pending + " events awaiting delivery";
         }
     }
     
@@ -1,52 +1,346 @@
 package com.sathya.conversion.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sathya.conversion.config.RabbitMQConfig;
+import com.sathya.conversion.messaging.NegotiatingMessageConverter;
 import com.sathya.conversion.model.CurrencyConversionMessage;
+import com.sathya.conversion.outbox.OutboxLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes conversion events to RabbitMQ through the local outbox.
+ *
+ * sendConversionMessage only appends the conversion and notification messages to the
+ * OutboxLog, so a conversion pays for a serialize and a memory copy, not a broker
+ * round trip, and nothing is lost while RabbitMQ is down. A dedicated relay thread
+ * reads the log in batches, sends each batch on one channel and waits for the
+ * broker's publisher confirms; nacked or unconfirmed messages are re-sent (same
+ * message id) with backoff until they are confirmed. Only then is the batch
+ * checkpointed, so after a restart exactly the unconfirmed entries are sent again.
+ * When the log is full, appends wait up to block-timeout and are then rejected.
+ *
+ * Events are sent as JSON, except on routing keys listed in binary-routing-keys, which
+ * get the compact binary format. Notifications are always JSON.
+ */
 @Service
 public class MessageProducer {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(MessageProducer.class);
-    
+
     private final RabbitTemplate rabbitTemplate;
-    
-    public MessageProducer(RabbitTemplate rabbitTemplate) {
+    private final OutboxLog outbox;
+    private final ObjectMapper objectMapper;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long confirmTimeoutNanos;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration shutdownTimeout;
+    private final Set<String> binaryRoutingKeys;
+    private final NegotiatingMessageConverter binaryConverter;
+
+    private final Thread relayThread;
+    private volatile boolean running = true;
+
+    private final Timer appendLatency;
+    private final Timer publishLatency;
+    private final Timer confirmLatency;
+    private final DistributionSummary batchSizes;
+    private final Counter confirmed;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rejected;
+
+    @Autowired
+    public MessageProducer(RabbitTemplate rabbitTemplate,
+                           OutboxLog outbox,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${conversion-events.block-timeout:100ms}") Duration blockTimeout,
+                           @Value("${conversion-events.batch-size:100}") int batchSize,
+                           @Value("${conversion-events.confirm-timeout:5s}") Duration confirmTimeout,
+                           @Value("${conversion-events.retry-backoff:200ms}") Duration retryBackoff,
+                           @Value("${conversion-events.max-retry-backoff:10s}") Duration maxRetryBackoff,
+                           @Value("${conversion-events.shutdown-timeout:10s}") Duration shutdownTimeout,
+                           @Value("${conversion-events.binary-routing-keys:}") List<String> binaryRoutingKeys) {
         this.rabbitTemplate = rabbitTemplate;
+        this.outbox = outbox;
+        this.objectMapper = objectMapper;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.batchSize = Math.max(1, batchSize);
+        this.confirmTimeoutNanos = confirmTimeout.toNanos();
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+        this.binaryRoutingKeys = binaryRoutingKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        if (this.binaryRoutingKeys.contains(RabbitMQConfig.NOTIFICATION_ROUTING_KEY)) {
+            throw new IllegalArgumentException("Notifications are always JSON; remove "
+                    + RabbitMQConfig.NOTIFICATION_ROUTING_KEY + " from conversion-events.binary-routing-keys");
+        }
+        this.binaryConverter = new NegotiatingMessageConverter(rabbitTemplate.getMessageConverter(),
+                NegotiatingMessageConverter.Format.BINARY);
+
+        this.appendLatency = Timer.builder("currency.outbox.append.latency")
+                .description("Time to serialize and append an event to the outbox (the cost on the request path)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.publishLatency = Timer.builder("currency.publisher.publish.latency")
+                .description("Time from appending to the outbox to broker confirm")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.confirmLatency = Timer.builder("currency.publisher.confirm.latency")
+                .description("Time from sending a batch to the broker confirming a message in it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("currency.publisher.batch.size")
+                .description("Messages sent per relay batch")
+                .register(meterRegistry);
+        this.confirmed = outcomeCounter(meterRegistry, "confirmed");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        Gauge.builder("currency.publisher.queue.depth", outbox, OutboxLog::pendingCount)
+                .description("Events in the outbox not yet confirmed by the broker")
+                .register(meterRegistry);
+
+        this.relayThread = new Thread(this::relayLoop, "outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
     }
-    
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("currency.publisher.messages")
+                .tag("outcome", outcome)
+                .description("Conversion events by publish outcome")
+                .register(meterRegistry);
+    }
+
     public void sendConversionMessage(CurrencyConversionMessage message) {
-        try {
-            rabbitTemplate.convertAndSend(
-                RabbitMQConfig.EXCHANGE_NAME,
-                RabbitMQConfig.CONVERSION_ROUTING_KEY,
-                message
-            );
-            logger.info("✅ Conversion message sent: {}", message);
-            
-            // Also send notification
-            sendNotificationMessage(message);
-            
-        } catch (Exception e) {
-            logger.error("❌ Failed to send conversion message: {}", e.getMessage());
-            throw new RuntimeException("RabbitMQ message sending failed: " + e.getMessage());
+        send(RabbitMQConfig.CONVERSION_ROUTING_KEY, message);
+    }
+
+    // Async requests go to ConversionWorker's own queue, never to the completed-event queue
+    public void sendConversionRequest(CurrencyConversionMessage message) {
+        send(RabbitMQConfig.CONVERSION_REQUEST_ROUTING_KEY, message);
+    }
+
+    private void send(String routingKey, CurrencyConversionMessage message) {
+        if (!append(routingKey, message)) {
+            logger.error("❌ Outbox full, conversion message rejected: {}", message);
+            throw new RuntimeException("RabbitMQ outbox full");
         }
+        logger.info("✅ Conversion message queued: {}", message);
+
+        // Also send notification
+        sendNotificationMessage(message);
     }
-    
+
     private void sendNotificationMessage(CurrencyConversionMessage message) {
+        CurrencyConversionMessage notification = new CurrencyConversionMessage(
+            message.getConversionId(),
+            message.getFromCurrency(),
+            message.getToCurrency(),
+            message.getAmount(),
+            message.getConvertedAmount(),
+            message.getExchangeRate(),
+            "NOTIFICATION_SENT"
+        );
+        if (append(RabbitMQConfig.NOTIFICATION_ROUTING_KEY, notification)) {
+            logger.info("📧 Notification message queued for conversion ID: {}", message.getConversionId());
+        } else {
+            logger.error("❌ Outbox full, notification dropped for conversion ID: {}", message.getConversionId());
+        }
+    }
+
+    public long pendingCount() {
+        return outbox.pendingCount();
+    }
+
+    private boolean append(String routingKey, CurrencyConversionMessage message) {
+        long start = System.nanoTime();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(message);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize " + message, e);
+        }
+        boolean appended = outbox.append(UUID.randomUUID().toString(), routingKey, body, blockTimeoutNanos, TimeUnit.NANOSECONDS);
+        appendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!appended) {
+            rejected.increment();
+        }
+        return appended;
+    }
+
+    // Runs until shutdown, then keeps relaying until the outbox is drained or shutdown-timeout passes
+    private void relayLoop() {
+        long readOffset = outbox.checkpointOffset();
+        List<OutboxLog.Entry> batch = new ArrayList<>();
+        List<OutboxLog.Entry> unconfirmed = new ArrayList<>();
+        long backoffMillis = retryBackoff.toMillis();
+
+        while (running || outbox.hasEntriesAfter(readOffset) || !unconfirmed.isEmpty()) {
+            try {
+                List<OutboxLog.Entry> toSend;
+                if (unconfirmed.isEmpty()) {
+                    if (!outbox.awaitEntries(readOffset, 100, TimeUnit.MILLISECONDS)) {
+                        continue;
+                    }
+                    batch = outbox.read(readOffset, batchSize);
+                    toSend = batch;
+                } else {
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, maxRetryBackoff.toMillis());
+                    toSend = new ArrayList<>(unconfirmed);
+                }
+
+                unconfirmed = publishBatch(toSend);
+                if (unconfirmed.isEmpty() && !batch.isEmpty()) {
+                    // The whole batch is confirmed: it never has to be sent again
+                    readOffset = batch.get(batch.size() - 1).getNextOffset();
+                    outbox.checkpoint(readOffset, batch.size());
+                    batch = new ArrayList<>();
+                    backoffMillis = retryBackoff.toMillis();
+                }
+            } catch (InterruptedException e) {
+                logger.warn("⚠️ Outbox relay stopped with {} events undelivered; they are sent after restart", outbox.pendingCount());
+                return;
+            } catch (Exception e) {
+                logger.error("❌ Unexpected outbox relay failure: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // Sends the entries and returns those the broker did not confirm
+    private List<OutboxLog.Entry> publishBatch(List<OutboxLog.Entry> entries) {
+        batchSizes.record(entries.size());
+        CorrelationData[] correlations = new CorrelationData[entries.size()];
+        boolean[] skipped = new boolean[entries.size()];
+        long sentAt = System.nanoTime();
+
         try {
-            message.setStatus("NOTIFICATION_SENT");
-            rabbitTemplate.convertAndSend(
-                RabbitMQConfig.EXCHANGE_NAME,
-                RabbitMQConfig.NOTIFICATION_ROUTING_KEY,
-                message
-            );
-            logger.info("📧 Notification message sent for conversion ID: {}", message.getConversionId());
+            // One channel for the whole batch instead of a checkout per message
+            rabbitTemplate.invoke(operations -> {
+                for (int i = 0; i < entries.size(); i++) {
+                    OutboxLog.Entry entry = entries.get(i);
+                    CurrencyConversionMessage message;
+                    try {
+                        message = objectMapper.readValue(entry.getBody(), CurrencyConversionMessage.class);
+                    } catch (IOException e) {
+                        // Cannot succeed on a retry either
+                        skipped[i] = true;
+                        failed.increment();
+                        logger.error("❌ Skipping unreadable outbox entry {}: {}", entry.getId(), e.getMessage());
+                        continue;
+                    }
+                    CorrelationData correlation = new CorrelationData(entry.getId());
+                    correlation.getFuture().thenAccept(confirm -> {
+                        if (confirm.isAck()) {
+                            confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+                            publishLatency.record(Math.max(0, System.currentTimeMillis() - entry.getAppendedAt()), TimeUnit.MILLISECONDS);
+                        }
+                    });
+                    correlations[i] = correlation;
+                    if (binaryRoutingKeys.contains(entry.getRoutingKey())) {
+                        MessageProperties properties = new MessageProperties();
+                        properties.setMessageId(entry.getId());
+                        operations.send(RabbitMQConfig.EXCHANGE_NAME, entry.getRoutingKey(),
+                                binaryConverter.toMessage(message, properties), correlation);
+                    } else {
+                        operations.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, entry.getRoutingKey(), message,
+                                amqpMessage -> {
+                                    amqpMessage.getMessageProperties().setMessageId(entry.getId());
+                                    return amqpMessage;
+                                }, correlation);
+                    }
+                }
+                return null;
+            });
         } catch (Exception e) {
-            logger.error("❌ Failed to send notification message: {}", e.getMessage());
+            // Messages sent before the failure may still be confirmed; the rest are retried
+            logger.warn("⚠️ Failed to publish batch of {} messages: {}", entries.size(), e.getMessage());
+        }
+
+        List<OutboxLog.Entry> unconfirmed = new ArrayList<>();
+        long deadline = sentAt + confirmTimeoutNanos;
+        for (int i = 0; i < entries.size(); i++) {
+            if (skipped[i]) {
+                continue;
+            }
+            OutboxLog.Entry entry = entries.get(i);
+            CorrelationData correlation = correlations[i];
+            CorrelationData.Confirm confirm = correlation != null ? awaitConfirm(correlation, deadline) : null;
+
+            if (confirm != null && confirm.isAck() && correlation.getReturned() == null) {
+                confirmed.increment();
+            } else if (confirm != null && confirm.isAck()) {
+                // Acked but unroutable: re-sending cannot help
+                failed.increment();
+                logger.error("❌ Message {} returned as unroutable: {}", entry.getId(), correlation.getReturned().getReplyText());
+            } else {
+                retried.increment();
+                logger.warn("⚠️ Message {} not confirmed ({}), will retry", entry.getId(),
+                            confirm == null ? "no confirm" : "nack: " + confirm.getReason());
+                unconfirmed.add(entry);
+            }
+        }
+        return unconfirmed;
+    }
+
+    private static CorrelationData.Confirm awaitConfirm(CorrelationData correlation, long deadlineNanos) {
+        try {
+            return correlation.getFuture().get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            relayThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (relayThread.isAlive()) {
+            // Whatever is still unconfirmed stays in the outbox for the next start
+            relayThread.interrupt();
+            try {
+                relayThread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
-}
\ No newline at end of file
+}
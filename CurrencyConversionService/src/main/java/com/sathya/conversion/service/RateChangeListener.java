@@ -0,0 +1,69 @@
+package com.sathya.conversion.service;
+
+import com.sathya.conversion.cache.RateCache;
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.model.RateChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+
+@Service
+public class RateChangeListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RateChangeListener.class);
+    
+    private final RateCache rateCache;
+    private final String rateChangeQueueName;
+    
+    public RateChangeListener(RateCache rateCache, @Qualifier("rateChangeQueue") Queue rateChangeQueue) {
+        this.rateCache = rateCache;
+        this.rateChangeQueueName = rateChangeQueue.getName();
+    }
+    
+    /**
+     * The rate change queue is auto-delete: changes published while this instance was
+     * disconnected are gone. Whenever a consumer (re)starts, cached rates are dropped
+     * and fetched again on next use.
+     */
+    @EventListener
+    public void onConsumerStarted(AsyncConsumerStartedEvent event) {
+        if (event.getSource() instanceof AbstractMessageListenerContainer container
+                && Arrays.asList(container.getQueueNames()).contains(rateChangeQueueName)) {
+            rateCache.clear();
+            logger.info("🔄 Rate change consumer started, cleared rate cache (changes may have been missed)");
+        }
+    }
+    
+    /**
+     * Apply rate changes pushed by currency-exchange-service to the local rate cache.
+     * Acknowledged only after this returns, so a failure means redelivery; applying the
+     * same version twice is a no-op.
+     */
+    @RabbitListener(queues = "#{rateChangeQueue.name}")
+    public void onRateChange(RateChangeEvent event) {
+        if (event.getFrom() == null || event.getTo() == null) {
+            logger.warn("⚠️ Ignoring rate change without a currency pair: {}", event);
+            return;
+        }
+        
+        CurrencyConversion rate = null;
+        if (event.getType() != RateChangeEvent.Type.DELETED && event.getConversionMultiple() != null) {
+            rate = new CurrencyConversion(event.getId(), event.getFrom(), event.getTo(),
+                                          event.getConversionMultiple(), null, null, "RATE_CHANGE_EVENT");
+        }
+        
+        if (rateCache.applyChange(event.getFrom(), event.getTo(), rate, event.getVersion())) {
+            logger.info("📥 Rate change applied: {}", event);
+        } else {
+            logger.debug("Skipping duplicate or outdated rate change: {}", event);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.sathya.conversion.service;
+
+import com.sathya.conversion.cache.RateCache;
+import com.sathya.conversion.client.ReactiveExchangeClient;
+import com.sathya.conversion.model.CurrencyConversion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking conversion pipeline: rates come from the local cache or WebClient, no
+ * thread waits on the exchange service, and the RabbitMQ publish is handed to a
+ * separate scheduler after the result is emitted, so it is off the request path.
+ */
+@Service
+public class ReactiveCurrencyService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCurrencyService.class);
+    
+    @Autowired
+    private ReactiveExchangeClient exchangeClient;
+    
+    @Autowired
+    private RateCache rateCache;
+    
+    @Autowired
+    private CurrencyService currencyService;
+    
+    // Enqueueing can wait for buffer space (BLOCK overflow policy); keep it off request and event-loop threads
+    private final Scheduler publishScheduler;
+    
+    public ReactiveCurrencyService(@Value("${reactive.publish.threads:4}") int threads,
+                                   @Value("${reactive.publish.queue-size:10000}") int queueSize) {
+        this.publishScheduler = Schedulers.newBoundedElastic(threads, queueSize, "conversion-publish");
+    }
+    
+    public Mono<CurrencyConversion> convertCurrency(String from, String to, BigDecimal quantity) {
+        return rate(from, to)
+                .map(exchangeValue -> currencyService.calculateConversion(exchangeValue, from, to, quantity))
+                .doOnNext(this::publishInBackground);
+    }
+    
+    public Flux<CurrencyConversion> bulkConvert(String from, BigDecimal amount, List<String> targetCurrencies) {
+        return rates(from, targetCurrencies)
+                .flatMapMany(ratesByTarget -> Flux.fromIterable(targetCurrencies)
+                        .map(target -> {
+                            CurrencyConversion exchangeValue = ratesByTarget.get(target.toUpperCase());
+                            if (exchangeValue == null) {
+                                exchangeValue = currencyService.createFallbackResponse(from, target);
+                            }
+                            return currencyService.calculateConversion(exchangeValue, from, target, amount);
+                        }))
+                .doOnNext(this::publishInBackground);
+    }
+    
+    // Cache first, then the exchange service, then FALLBACK_RATES
+    private Mono<CurrencyConversion> rate(String from, String to) {
+        RateCache.CachedRate cached = rateCache.get(from, to);
+        if (cached != null) {
+            return Mono.just(cached.toConversion());
+        }
+        long changeSequence = rateCache.changeSequence();
+        return exchangeClient.retrieveExchangeValue(from, to)
+                .doOnNext(result -> rateCache.put(from, to, result, changeSequence))
+                .onErrorResume(e -> {
+                    logger.error("❌ Exchange service UNAVAILABLE (reactive): {}. Using FALLBACK data.", e.getMessage());
+                    return Mono.fromCallable(() -> currencyService.createFallbackResponse(from, to));
+                });
+    }
+    
+    private Mono<Map<String, CurrencyConversion>> rates(String from, List<String> targetCurrencies) {
+        Map<String, CurrencyConversion> ratesByTarget = new HashMap<>();
+        List<String> uncached = targetCurrencies.stream()
+                .filter(target -> {
+                    RateCache.CachedRate cached = rateCache.get(from, target);
+                    if (cached != null) {
+                        ratesByTarget.put(target.toUpperCase(), cached.toConversion());
+                    }
+                    return cached == null;
+                })
+                .toList();
+        if (uncached.isEmpty()) {
+            return Mono.just(ratesByTarget);
+        }
+        
+        long changeSequence = rateCache.changeSequence();
+        return exchangeClient.retrieveExchangeValues(from, uncached)
+                .onErrorResume(e -> {
+                    logger.error("❌ Exchange service UNAVAILABLE for reactive batch lookup: {}. Using FALLBACK data.", e.getMessage());
+                    return Mono.just(Collections.emptyList());
+                })
+                .map(rates -> {
+                    for (CurrencyConversion rate : rates) {
+                        ratesByTarget.put(rate.getTo().toUpperCase(), rate);
+                        rateCache.put(from, rate.getTo(), rate, changeSequence);
+                    }
+                    return ratesByTarget;
+                });
+    }
+    
+    // Fire-and-forget: a failed publish is logged by sendConversionMessageToQueue, never fails the response
+    private void publishInBackground(CurrencyConversion conversion) {
+        Mono.fromRunnable(() -> currencyService.sendConversionMessageToQueue(conversion))
+                .subscribeOn(publishScheduler)
+                .subscribe(null, e -> logger.error("❌ Background publish rejected for conversion {}: {}", conversion.getId(), e.getMessage()));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        publishScheduler.dispose();
+    }
+}
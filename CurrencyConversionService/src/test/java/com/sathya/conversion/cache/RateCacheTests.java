@@ -0,0 +1,128 @@
+package com.sathya.conversion.cache;
+
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.proxy.CurrencyExchangeProxy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateCacheTests {
+
+	private final AtomicLong now = new AtomicLong();
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private volatile boolean upstreamDown;
+
+	private final CurrencyExchangeProxy proxy = new CurrencyExchangeProxy() {
+		@Override
+		public CurrencyConversion retrieveExchangeValue(String from, String to) {
+			upstreamCalls.incrementAndGet();
+			if (upstreamDown) {
+				throw new IllegalStateException("down");
+			}
+			return rate("84.00");
+		}
+
+		@Override
+		public List<CurrencyConversion> retrieveExchangeValues(String from, List<String> to) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String healthCheck() {
+			return "UP";
+		}
+	};
+
+	// Refreshes run inline so their effect is visible immediately
+	private final RateCache cache = new RateCache(proxy, new SimpleMeterRegistry(),
+			Duration.ofSeconds(60), Duration.ofSeconds(15), Duration.ofSeconds(300), 100, Runnable::run, now::get);
+
+	@Test
+	void servesFreshEntriesWithoutUpstreamCalls() {
+		assertNull(cache.get("USD", "INR"));
+		cache.put("USD", "INR", rate("83.00"), cache.changeSequence());
+
+		RateCache.CachedRate cached = cache.get("usd", "inr");
+		assertEquals(RateCache.Freshness.FRESH, cached.getFreshness());
+		assertEquals(new BigDecimal("83.00"), cached.getConversionMultiple());
+		assertEquals("🟢 CACHED - 8000", cached.toConversion().getEnvironment());
+		assertEquals(0, upstreamCalls.get());
+	}
+
+	@Test
+	void refreshesAheadOfExpiry() {
+		cache.put("USD", "INR", rate("83.00"), cache.changeSequence());
+		now.set(Duration.ofSeconds(50).toNanos());
+
+		// Still served from the old entry; the refresh replaces it for later readers
+		assertEquals(new BigDecimal("83.00"), cache.get("USD", "INR").getConversionMultiple());
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(new BigDecimal("84.00"), cache.get("USD", "INR").getConversionMultiple());
+		assertEquals(RateCache.Freshness.FRESH, cache.get("USD", "INR").getFreshness());
+	}
+
+	@Test
+	void servesStaleUntilMaxStaleness() {
+		upstreamDown = true;
+		cache.put("USD", "INR", rate("83.00"), cache.changeSequence());
+
+		now.set(Duration.ofSeconds(120).toNanos());
+		RateCache.CachedRate stale = cache.get("USD", "INR");
+		assertEquals(RateCache.Freshness.STALE, stale.getFreshness());
+		assertEquals("🟡 STALE - 8000", stale.toConversion().getEnvironment());
+
+		now.set(Duration.ofSeconds(300).toNanos());
+		assertNull(cache.get("USD", "INR"));
+	}
+
+	@Test
+	void fetchThatRacedWithAPushedChangeDoesNotOverwriteIt() {
+		long beforeFetch = cache.changeSequence();
+		cache.applyChange("USD", "INR", rate("85.00"), 7);
+
+		cache.put("USD", "INR", rate("83.00"), beforeFetch);
+		assertEquals(new BigDecimal("85.00"), cache.get("USD", "INR").getConversionMultiple());
+
+		// A fetch started after the change may replace it; the pushed version is kept
+		cache.put("USD", "INR", rate("85.10"), cache.changeSequence());
+		assertEquals(new BigDecimal("85.10"), cache.get("USD", "INR").getConversionMultiple());
+		assertFalse(cache.applyChange("USD", "INR", rate("84.00"), 6));
+	}
+
+	@Test
+	void deletedPairStaysDeletedForRacingFetchesAndOlderVersions() {
+		long beforeFetch = cache.changeSequence();
+		cache.applyChange("USD", "INR", null, 9);
+
+		cache.put("USD", "INR", rate("83.00"), beforeFetch);
+		assertFalse(cache.applyChange("USD", "INR", rate("84.00"), 8));
+		assertNull(cache.get("USD", "INR"));
+	}
+
+	@Test
+	void clearDropsEntriesAndFetchesStartedBeforeIt() {
+		cache.put("USD", "INR", rate("83.00"), cache.changeSequence());
+		long seenBeforeClear = cache.changeSequence();
+
+		cache.clear();
+		assertNull(cache.get("USD", "INR"));
+
+		// Fetched before the clear: may predate a change this instance missed
+		cache.put("USD", "INR", rate("83.00"), seenBeforeClear);
+		assertNull(cache.get("USD", "INR"));
+
+		cache.put("USD", "INR", rate("84.00"), cache.changeSequence());
+		assertEquals(new BigDecimal("84.00"), cache.get("USD", "INR").getConversionMultiple());
+	}
+
+	private static CurrencyConversion rate(String multiple) {
+		return new CurrencyConversion(1001L, "USD", "INR", new BigDecimal(multiple), null, null, "8000");
+	}
+}
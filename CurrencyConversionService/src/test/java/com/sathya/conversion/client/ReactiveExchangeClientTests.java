@@ -0,0 +1,94 @@
+package com.sathya.conversion.client;
+
+import com.sathya.conversion.model.CurrencyConversion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveExchangeClientTests {
+
+	private static final String RATE = "{\"id\":1,\"from\":\"USD\",\"to\":\"INR\",\"conversionMultiple\":83.00,\"environment\":\"8000\"}";
+
+	// Canned upstream answers, one per attempt; requests are recorded in order
+	private final List<Mono<ClientResponse>> answers = new ArrayList<>();
+	private final List<ClientRequest> requests = new ArrayList<>();
+
+	private final ReactiveExchangeClient client = new ReactiveExchangeClient(
+			WebClient.builder().exchangeFunction(request -> {
+				requests.add(request);
+				return answers.get(Math.min(requests.size(), answers.size()) - 1);
+			}),
+			"http://currency-exchange-service", Duration.ofMillis(200), 2, Duration.ofMillis(10), 10, 10);
+
+	@Test
+	void retriesServerErrorsWithBackoff() {
+		answers.add(status(HttpStatus.SERVICE_UNAVAILABLE));
+		answers.add(status(HttpStatus.BAD_GATEWAY));
+		answers.add(json(RATE));
+
+		CurrencyConversion rate = client.retrieveExchangeValue("USD", "INR").block(Duration.ofSeconds(5));
+
+		assertEquals(new BigDecimal("83.00"), rate.getConversionMultiple());
+		assertEquals(3, requests.size());
+		assertEquals("/currency-exchange/from/USD/to/INR", requests.get(0).url().getPath());
+	}
+
+	@Test
+	void doesNotRetryClientErrors() {
+		answers.add(status(HttpStatus.NOT_FOUND));
+
+		StepVerifier.create(client.retrieveExchangeValue("USD", "XYZ"))
+				.expectError(WebClientResponseException.NotFound.class)
+				.verify(Duration.ofSeconds(5));
+		assertEquals(1, requests.size());
+	}
+
+	@Test
+	void givesUpAfterTheLastRetryWithTheUnderlyingError() {
+		answers.add(Mono.never());
+
+		StepVerifier.create(client.retrieveExchangeValue("USD", "INR"))
+				.expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+		// Each attempt gets its own timeout: one call plus two retries
+		assertEquals(3, requests.size());
+	}
+
+	@Test
+	void asksForAllTargetsInOneBatchCall() {
+		answers.add(json("[" + RATE + "]"));
+
+		List<CurrencyConversion> rates = client.retrieveExchangeValues("USD", List.of("INR", "EUR")).block(Duration.ofSeconds(5));
+
+		assertEquals(1, rates.size());
+		assertEquals(1, requests.size());
+		assertEquals("/currency-exchange/from/USD/batch", requests.get(0).url().getPath());
+		assertEquals("to=INR&to=EUR", requests.get(0).url().getQuery());
+	}
+
+	private static Mono<ClientResponse> status(HttpStatus status) {
+		return Mono.just(ClientResponse.create(status).build());
+	}
+
+	private static Mono<ClientResponse> json(String body) {
+		return Mono.just(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.body(body)
+				.build());
+	}
+}
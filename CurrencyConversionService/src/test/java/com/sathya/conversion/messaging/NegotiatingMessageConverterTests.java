@@ -0,0 +1,79 @@
+package com.sathya.conversion.messaging;
+
+import com.sathya.conversion.model.CurrencyConversionMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegotiatingMessageConverterTests {
+
+	private final NegotiatingMessageConverter binary = converter(NegotiatingMessageConverter.Format.BINARY);
+	private final NegotiatingMessageConverter json = converter(NegotiatingMessageConverter.Format.JSON);
+
+	@Test
+	void roundTripsConversionMessagesCompactly() {
+		CurrencyConversionMessage message = new CurrencyConversionMessage(10001L, "USD", "INR", new BigDecimal("10"),
+				new BigDecimal("830.00"), new BigDecimal("83.00"), "CONVERSION_COMPLETED");
+
+		Message encoded = binary.toMessage(message, new MessageProperties());
+		assertEquals(NegotiatingMessageConverter.CONTENT_TYPE, encoded.getMessageProperties().getContentType());
+		assertTrue(encoded.getBody().length < 25, "binary message is " + encoded.getBody().length + " bytes");
+		assertFields(message, (CurrencyConversionMessage) binary.fromMessage(encoded));
+	}
+
+	@Test
+	void keepsNullsUnusualCodesAndAmountsBeyondALong() {
+		CurrencyConversionMessage message = new CurrencyConversionMessage(-5L, "usd", "BTC-X", null,
+				new BigDecimal("123456789012345678901234567890.123"), new BigDecimal("1E+3"), "CUSTOM_STATUS");
+
+		assertFields(message, (CurrencyConversionMessage) binary.fromMessage(binary.toMessage(message, new MessageProperties())));
+		assertFields(new CurrencyConversionMessage(),
+				(CurrencyConversionMessage) binary.fromMessage(binary.toMessage(new CurrencyConversionMessage(), new MessageProperties())));
+	}
+
+	@Test
+	void negotiatesByContentType() {
+		CurrencyConversionMessage message = new CurrencyConversionMessage(1L, "EUR", "INR", BigDecimal.ONE,
+				new BigDecimal("88.00"), new BigDecimal("88.00"), "ASYNC_REQUEST");
+
+		// JSON from older instances is still read by a binary-producing converter, and vice versa
+		Message asJson = json.toMessage(message, new MessageProperties());
+		assertEquals(MessageProperties.CONTENT_TYPE_JSON, asJson.getMessageProperties().getContentType());
+		assertFields(message, (CurrencyConversionMessage) binary.fromMessage(asJson));
+		assertFields(message, (CurrencyConversionMessage) json.fromMessage(binary.toMessage(message, new MessageProperties())));
+
+		// Other payloads are JSON whatever the configured format
+		Message other = binary.toMessage(Map.of("from", "USD"), new MessageProperties());
+		assertEquals(MessageProperties.CONTENT_TYPE_JSON, other.getMessageProperties().getContentType());
+	}
+
+	@Test
+	void rejectsUnknownSchemaVersions() {
+		Message encoded = binary.toMessage(new CurrencyConversionMessage(1L, "USD", "INR", BigDecimal.ONE, null, null, null),
+				new MessageProperties());
+		encoded.getBody()[0] = 2;
+
+		assertThrows(MessageConversionException.class, () -> binary.fromMessage(encoded));
+	}
+
+	private static NegotiatingMessageConverter converter(NegotiatingMessageConverter.Format format) {
+		return new NegotiatingMessageConverter(new Jackson2JsonMessageConverter(), format);
+	}
+
+	private static void assertFields(CurrencyConversionMessage expected, CurrencyConversionMessage actual) {
+		assertEquals(expected.getConversionId(), actual.getConversionId());
+		assertEquals(expected.getFromCurrency(), actual.getFromCurrency());
+		assertEquals(expected.getToCurrency(), actual.getToCurrency());
+		assertEquals(expected.getAmount(), actual.getAmount());
+		assertEquals(expected.getConvertedAmount(), actual.getConvertedAmount());
+		assertEquals(expected.getExchangeRate(), actual.getExchangeRate());
+		assertEquals(expected.getStatus(), actual.getStatus());
+	}
+}
@@ -0,0 +1,130 @@
+package com.sathya.conversion.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxLogTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsEntriesInOrderAcrossSegmentsAndDeletesCheckpointedSegments() throws IOException {
+		OutboxLog log = open(8);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(log.append("id-" + i, "conversion.key", body(i), 0, TimeUnit.MILLISECONDS));
+		}
+		assertTrue(segmentFiles() > 1);
+
+		List<OutboxLog.Entry> entries = readAll(log, 0);
+		assertEquals(100, entries.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals("id-" + i, entries.get(i).getId());
+			assertEquals("conversion.key", entries.get(i).getRoutingKey());
+			assertEquals("body-" + i, new String(entries.get(i).getBody(), StandardCharsets.UTF_8));
+		}
+
+		long end = entries.get(99).getNextOffset();
+		log.checkpoint(end, 100);
+		assertEquals(0, log.pendingCount());
+		assertEquals(1, segmentFiles());
+		assertFalse(log.hasEntriesAfter(end));
+	}
+
+	@Test
+	void rejectsAppendsWhenFullUntilTheRelayCatchesUp() {
+		OutboxLog log = open(2);
+		int appended = 0;
+		while (log.append("id-" + appended, "conversion.key", body(appended), 0, TimeUnit.MILLISECONDS)) {
+			appended++;
+		}
+		assertTrue(appended > 0);
+		assertEquals(appended, log.pendingCount());
+
+		// Delivering everything frees the first segment
+		List<OutboxLog.Entry> entries = readAll(log, 0);
+		assertEquals(appended, entries.size());
+		log.checkpoint(entries.get(entries.size() - 1).getNextOffset(), entries.size());
+		assertTrue(log.append("after-checkpoint", "conversion.key", body(0), 0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void recoversEntriesAfterTheCheckpointAndDropsATornTail() throws IOException {
+		OutboxLog log = open(8);
+		for (int i = 0; i < 10; i++) {
+			log.append("id-" + i, "conversion.key", body(i), 0, TimeUnit.MILLISECONDS);
+		}
+		List<OutboxLog.Entry> entries = log.read(0, 10);
+		log.checkpoint(entries.get(3).getNextOffset(), 4);
+		long end = entries.get(9).getNextOffset();
+
+		// Simulate a crash half-way through the next record: a length without a valid body
+		try (RandomAccessFile segment = new RandomAccessFile(lastSegment().toFile(), "rw")) {
+			segment.seek(end % DataSize.ofKilobytes(1).toBytes());
+			segment.writeInt(40);
+		}
+
+		log.close();
+		OutboxLog recovered = open(8);
+		assertEquals(6, recovered.pendingCount());
+		List<OutboxLog.Entry> replayed = readAll(recovered, recovered.checkpointOffset());
+		assertEquals(List.of("id-4", "id-5", "id-6", "id-7", "id-8", "id-9"),
+				replayed.stream().map(OutboxLog.Entry::getId).toList());
+
+		// Appends continue where the intact log ended
+		assertTrue(recovered.append("id-10", "conversion.key", body(10), 0, TimeUnit.MILLISECONDS));
+		assertEquals("id-10", readAll(recovered, end).get(0).getId());
+	}
+
+	@Test
+	void refusesADirectoryAnotherInstanceHasOpen() {
+		OutboxLog log = open(8);
+		assertThrows(IllegalStateException.class, () -> open(8));
+
+		log.close();
+		open(8).close();
+	}
+
+	private OutboxLog open(int maxSegments) {
+		return new OutboxLog(directory, DataSize.ofKilobytes(1), maxSegments, false);
+	}
+
+	private static List<OutboxLog.Entry> readAll(OutboxLog log, long offset) {
+		List<OutboxLog.Entry> all = new ArrayList<>();
+		List<OutboxLog.Entry> batch;
+		while (!(batch = log.read(offset, 7)).isEmpty()) {
+			all.addAll(batch);
+			offset = batch.get(batch.size() - 1).getNextOffset();
+		}
+		return all;
+	}
+
+	private static byte[] body(int i) {
+		return ("body-" + i).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private long segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.toString().endsWith(".log")).count();
+		}
+	}
+
+	private Path lastSegment() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.toString().endsWith(".log")).sorted().reduce((a, b) -> b).orElseThrow();
+		}
+	}
+}
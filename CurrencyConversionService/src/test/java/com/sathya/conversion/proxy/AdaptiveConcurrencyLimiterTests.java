@@ -0,0 +1,66 @@
+package com.sathya.conversion.proxy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 40, meterRegistry);
+
+	@Test
+	void growsWhileLatencyStaysAtTheBaselineAndShrinksWhenItRises() {
+		for (int i = 0; i < 3; i++) {
+			limiter.onSample(5 * MS, limiter.getLimit(), false);
+		}
+		assertEquals(28, limiter.getLimit());
+
+		// Ten times the unloaded RTT: the service is queueing, back off one step per sample
+		int before = limiter.getLimit();
+		limiter.onSample(50 * MS, before, false);
+		assertEquals(before - 1, limiter.getLimit());
+		for (int i = 0; i < 50; i++) {
+			limiter.onSample(50 * MS, limiter.getLimit(), false);
+		}
+		assertEquals(6, limiter.getLimit());
+		assertEquals(50, meterRegistry.get("currency.exchange.limiter.rtt").timeGauge().value(TimeUnit.MILLISECONDS));
+		assertEquals(5, meterRegistry.get("currency.exchange.limiter.rtt.noload").timeGauge().value(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void shrinksOnFailuresAndOnlyGrowsALimitThatIsInUse() {
+		limiter.onSample(5 * MS, 2, false);
+		limiter.onSample(5 * MS, 4, false);
+		assertEquals(10, limiter.getLimit());
+		limiter.onSample(50 * MS, 2, false);
+		assertEquals(9, limiter.getLimit());
+
+		for (int i = 0; i < 20; i++) {
+			limiter.onSample(2_000 * MS, 9, true);
+		}
+		assertEquals(1, limiter.getLimit());
+	}
+
+	@Test
+	void rejectsCallsBeyondTheLimitUntilPermitsAreReleased() {
+		List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			permits.add(limiter.tryAcquire());
+		}
+		assertNull(limiter.tryAcquire());
+		assertEquals(10, meterRegistry.get("currency.exchange.limiter.inflight").gauge().value());
+		assertEquals(1, meterRegistry.get("currency.exchange.limiter.rejected").counter().count());
+
+		permits.get(0).ignore();
+		assertNotNull(limiter.tryAcquire());
+		assertEquals(10, limiter.getInFlight());
+	}
+}
@@ -0,0 +1,166 @@
+package com.sathya.conversion.proxy;
+
+import com.sathya.conversion.model.CurrencyConversion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingExchangeClientTests {
+
+	private final ServiceInstance first = instance("exchange-1", 8000);
+	private final ServiceInstance second = instance("exchange-2", 8001);
+	private final Map<String, Long> latencyMillis = new ConcurrentHashMap<>(Map.of("exchange-1", 2L, "exchange-2", 2L));
+	private final Map<String, AtomicInteger> interrupted = Map.of("exchange-1", new AtomicInteger(), "exchange-2", new AtomicInteger());
+	private final AtomicInteger picks = new AtomicInteger();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+	private final HedgingExchangeClient hedging = new HedgingExchangeClient(new RoundRobin(),
+			instance -> new StubProxy(instance.getInstanceId()), meterRegistry, 0.95, Duration.ofMillis(10), 10);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+		hedging.shutdown();
+	}
+
+	@Test
+	void sendsASlowLookupToTheOtherInstanceAndCancelsTheFirstCall() throws Exception {
+		assertEquals("8000", lookup());
+		warmUp();
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(10), hedging.currentDelayNanos());
+
+		latencyMillis.put("exchange-1", 2_000L);
+		picks.set(0);
+		long start = System.nanoTime();
+		assertEquals("8001", lookup());
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+
+		Thread.sleep(100);
+		assertEquals(1, interrupted.get("exchange-1").get());
+		assertEquals(1, hedges("sent"));
+		assertEquals(1, hedges("won"));
+	}
+
+	@Test
+	void stopsHedgingOnceTheBudgetIsSpent() throws Exception {
+		warmUp();
+		latencyMillis.put("exchange-1", 2_000L);
+		latencyMillis.put("exchange-2", 2_000L);
+		List<Future<CurrencyConversion>> lookups = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			lookups.add(hedging.submit(executor, null, proxy -> proxy.retrieveExchangeValue("USD", "INR")));
+		}
+		Thread.sleep(500);
+
+		// Ten banked hedges plus a tenth of a hedge per lookup
+		double sent = hedges("sent");
+		assertTrue(sent >= 10 && sent <= 20, "hedges sent " + sent);
+		assertEquals(100 - sent, hedges("budget_exhausted"));
+		lookups.forEach(lookup -> lookup.cancel(true));
+	}
+
+	private void warmUp() throws Exception {
+		for (int i = 0; i < HedgingExchangeClient.MIN_SAMPLES; i++) {
+			lookup();
+		}
+	}
+
+	private String lookup() throws Exception {
+		return hedging.submit(executor, null, proxy -> proxy.retrieveExchangeValue("USD", "INR"))
+				.get(5, TimeUnit.SECONDS).getEnvironment();
+	}
+
+	private double hedges(String outcome) {
+		return meterRegistry.get("currency.exchange.hedge").tag("outcome", outcome).counter().count();
+	}
+
+	private static ServiceInstance instance(String id, int port) {
+		return new DefaultServiceInstance(id, HedgingExchangeClient.SERVICE_ID, "localhost", port, false);
+	}
+
+	private class RoundRobin implements LoadBalancerClient {
+
+		@Override
+		public ServiceInstance choose(String serviceId) {
+			return picks.getAndIncrement() % 2 == 0 ? first : second;
+		}
+
+		@Override
+		public <T> ServiceInstance choose(String serviceId, Request<T> request) {
+			return choose(serviceId);
+		}
+
+		@Override
+		public <T> T execute(String serviceId, LoadBalancerRequest<T> request) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request) {
+			try {
+				return request.apply(serviceInstance);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public URI reconstructURI(ServiceInstance instance, URI original) {
+			return original;
+		}
+	}
+
+	private class StubProxy implements CurrencyExchangeProxy {
+
+		private final String instanceId;
+
+		private StubProxy(String instanceId) {
+			this.instanceId = instanceId;
+		}
+
+		@Override
+		public CurrencyConversion retrieveExchangeValue(String from, String to) {
+			try {
+				Thread.sleep(latencyMillis.get(instanceId));
+			} catch (InterruptedException e) {
+				interrupted.get(instanceId).incrementAndGet();
+				throw new IllegalStateException("cancelled");
+			}
+			String port = instanceId.equals("exchange-1") ? "8000" : "8001";
+			return new CurrencyConversion(1L, from, to, new BigDecimal("83.00"), null, null, port);
+		}
+
+		@Override
+		public List<CurrencyConversion> retrieveExchangeValues(String from, List<String> to) {
+			return List.of();
+		}
+
+		@Override
+		public String healthCheck() {
+			return "UP";
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package com.sathya.conversion.proxy;
+
+import com.sathya.conversion.model.CurrencyConversion;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientExchangeProxyTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger delegateCalls = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private volatile Behaviour behaviour = Behaviour.SUCCEED;
+	private volatile long latencyMillis;
+
+	private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+			.slidingWindowSize(4)
+			.minimumNumberOfCalls(4)
+			.failureRateThreshold(50)
+			.waitDurationInOpenState(Duration.ofMinutes(1))
+			.ignoreExceptions(RejectedExecutionException.class)
+			.build());
+
+	private final ResilientExchangeProxy proxy = new ResilientExchangeProxy(new StubProxy(), circuitBreakers,
+			TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(200)).build()),
+			meterRegistry, 2, 1, 10, 1, 40, null);
+
+	private enum Behaviour { SUCCEED, FAIL, BLOCK }
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		proxy.shutdown();
+	}
+
+	@Test
+	void opensAfterFailuresAndThenFailsFastWithoutCallingTheService() {
+		assertEquals(new BigDecimal("83.00"), proxy.retrieveExchangeValue("USD", "INR").getConversionMultiple());
+
+		behaviour = Behaviour.FAIL;
+		for (int i = 0; i < 3; i++) {
+			assertThrows(IllegalStateException.class, () -> proxy.retrieveExchangeValue("USD", "INR"));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker().getState());
+
+		int callsWhenOpened = delegateCalls.get();
+		behaviour = Behaviour.SUCCEED;
+		assertThrows(CallNotPermittedException.class, () -> proxy.retrieveExchangeValues("USD", List.of("INR")));
+		assertThrows(CallNotPermittedException.class, proxy::healthCheck);
+		assertEquals(callsWhenOpened, delegateCalls.get());
+		assertEquals(2, circuitBreaker().getMetrics().getNumberOfNotPermittedCalls());
+	}
+
+	@Test
+	void stopsWaitingForSlowCallsAfterTheTimeout() {
+		behaviour = Behaviour.BLOCK;
+		long start = System.nanoTime();
+
+		RuntimeException failure = assertThrows(RuntimeException.class, () -> proxy.retrieveExchangeValue("USD", "INR"));
+		assertInstanceOf(TimeoutException.class, failure.getCause());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+		assertEquals(1, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+	}
+
+	@Test
+	void rejectsCallsBeyondTheBulkheadWithoutCountingThemAgainstTheService() throws Exception {
+		behaviour = Behaviour.BLOCK;
+		// Two threads and one queue slot: the first three calls are accepted and time out
+		List<Thread> callers = new ArrayList<>();
+		AtomicInteger timedOut = new AtomicInteger();
+		for (int i = 0; i < 3; i++) {
+			Thread caller = new Thread(() -> {
+				try {
+					proxy.retrieveExchangeValue("USD", "INR");
+				} catch (RuntimeException e) {
+					timedOut.incrementAndGet();
+				}
+			});
+			caller.start();
+			callers.add(caller);
+		}
+		Thread.sleep(100);
+
+		assertThrows(RejectedExecutionException.class, () -> proxy.retrieveExchangeValue("USD", "INR"));
+		assertEquals(1, meterRegistry.get("currency.exchange.bulkhead.rejected").counter().count());
+		assertEquals(2, meterRegistry.get("currency.exchange.bulkhead.active").gauge().value());
+		assertEquals(1, meterRegistry.get("currency.exchange.bulkhead.queued").gauge().value());
+		assertEquals(0, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+
+		for (Thread caller : callers) {
+			caller.join();
+		}
+		assertEquals(3, timedOut.get());
+	}
+
+	@Test
+	void shrinksTheLimitWhileTheExchangeServiceIsSlowAndRecoversAfterwards() throws Exception {
+		SimpleMeterRegistry loadedMeters = new SimpleMeterRegistry();
+		ResilientExchangeProxy loaded = new ResilientExchangeProxy(new StubProxy(), circuitBreakers,
+				TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(2)).build()),
+				loadedMeters, 40, 40, 10, 1, 40, null);
+		AdaptiveConcurrencyLimiter limiter = loaded.getLimiter();
+		AtomicInteger fallbacks = new AtomicInteger();
+		// Set before the callers start, so no zero-latency call becomes the baseline
+		latencyMillis = 50;
+		List<Thread> callers = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			Thread caller = new Thread(() -> {
+				while (!Thread.currentThread().isInterrupted()) {
+					try {
+						loaded.retrieveExchangeValue("USD", "INR");
+					} catch (RejectedExecutionException e) {
+						// Stands in for the caller's fallback work
+						fallbacks.incrementAndGet();
+						sleep(20);
+					} catch (RuntimeException e) {
+						// Interrupted at the end of the test
+					}
+				}
+			});
+			caller.start();
+			callers.add(caller);
+		}
+		try {
+			// Warm-up at the healthy latency
+			Thread.sleep(500);
+
+			// Ten times slower: the limit backs off and the excess calls fall back instead of queueing
+			latencyMillis = 500;
+			Thread.sleep(2_000);
+			int slowLimit = limiter.getLimit();
+			assertTrue(slowLimit <= 8, "limit " + slowLimit);
+			assertTrue(fallbacks.get() > 0);
+			assertTrue(loadedMeters.get("currency.exchange.limiter.rtt").timeGauge().value(TimeUnit.MILLISECONDS) >= 500);
+
+			// Healthy again: the limit grows back
+			latencyMillis = 50;
+			Thread.sleep(1_000);
+			assertTrue(limiter.getLimit() >= 2 * slowLimit, "limit " + slowLimit + " -> " + limiter.getLimit());
+			assertEquals(0, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+		} finally {
+			for (Thread caller : callers) {
+				caller.interrupt();
+				caller.join();
+			}
+			loaded.shutdown();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private CircuitBreaker circuitBreaker() {
+		return circuitBreakers.circuitBreaker(ResilientExchangeProxy.INSTANCE);
+	}
+
+	private class StubProxy implements CurrencyExchangeProxy {
+
+		@Override
+		public CurrencyConversion retrieveExchangeValue(String from, String to) {
+			return respond(new CurrencyConversion(1L, from, to, new BigDecimal("83.00"), null, null, "8000"));
+		}
+
+		@Override
+		public List<CurrencyConversion> retrieveExchangeValues(String from, List<String> to) {
+			return respond(List.of());
+		}
+
+		@Override
+		public String healthCheck() {
+			return respond("UP");
+		}
+
+		private <T> T respond(T value) {
+			delegateCalls.incrementAndGet();
+			if (latencyMillis > 0) {
+				sleep(latencyMillis);
+			}
+			switch (behaviour) {
+				case FAIL -> throw new IllegalStateException("exchange service down");
+				case BLOCK -> {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				default -> { }
+			}
+			return value;
+		}
+	}
+}
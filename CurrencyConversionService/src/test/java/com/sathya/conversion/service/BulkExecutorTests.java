@@ -0,0 +1,68 @@
+package com.sathya.conversion.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkExecutorTests {
+
+	private final BulkExecutor executor = new BulkExecutor(16, 100, 4, Duration.ofMillis(500));
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void keepsInputOrderAndCapsConcurrency() {
+		List<Integer> inputs = IntStream.range(0, 40).boxed().collect(Collectors.toList());
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		List<String> results = executor.map(inputs, i -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			sleep(5 + (i % 3) * 5);
+			running.decrementAndGet();
+			return "r" + i;
+		}, (i, e) -> "fallback" + i);
+
+		assertEquals(inputs.stream().map(i -> "r" + i).collect(Collectors.toList()), results);
+		assertTrue(maxRunning.get() <= 4, "ran " + maxRunning.get() + " items at once");
+	}
+
+	@Test
+	void usesFallbackForFailuresAndItemsPastTheDeadline() {
+		List<Integer> inputs = List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+		List<String> results = executor.map(inputs, i -> {
+			if (i == 1) {
+				throw new IllegalStateException("boom");
+			}
+			sleep(i >= 4 ? 2_000 : 1);
+			return "r" + i;
+		}, (i, e) -> e.getClass().getSimpleName() + i);
+
+		assertEquals("r0", results.get(0));
+		assertEquals("IllegalStateException1", results.get(1));
+		assertEquals("r2", results.get(2));
+		assertEquals("r3", results.get(3));
+		for (int i = 4; i < 10; i++) {
+			assertEquals("TimeoutException" + i, results.get(i));
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.sathya.conversion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sathya.conversion.model.CurrencyConversion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class BulkStreamServiceTests {
+
+	private final CurrencyService currencyService = mock(CurrencyService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final BulkStreamService service = new BulkStreamService(meterRegistry, 4, 4);
+
+	BulkStreamServiceTests() {
+		ReflectionTestUtils.setField(service, "currencyService", currencyService);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		// Earlier lines take longer, so completion order is the reverse of input order
+		given(currencyService.convertCurrency(any(), any(), any())).willAnswer(invocation -> {
+			String to = invocation.getArgument(1);
+			sleep("INR".equals(to) ? 150 : "EUR".equals(to) ? 75 : 0);
+			return conversion(invocation.getArgument(0), to, "converted");
+		});
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void emitsResultsInInputOrder() {
+		List<CurrencyConversion> results = convert(
+				line("USD", "INR", "10"),
+				line("USD", "EUR", "10"),
+				line("USD", "JPY", "10"));
+
+		assertEquals(List.of("INR", "EUR", "JPY"), results.stream().map(CurrencyConversion::getTo).toList());
+		assertEquals(3, meterRegistry.get("currency.bulk.stream.items").counter().count());
+		assertEquals(1, meterRegistry.get("currency.bulk.stream.first.result").timer().count());
+	}
+
+	@Test
+	void marksInvalidLinesInPlaceAndSkipsBlankOnes() {
+		List<CurrencyConversion> results = convert(
+				line("USD", "INR", "10"),
+				"not json",
+				"",
+				"{\"from\":\"USD\",\"amount\":10}",
+				line("USD", "JPY", "10"));
+
+		assertEquals(4, results.size());
+		assertEquals("converted", results.get(0).getEnvironment());
+		assertEquals("INVALID_REQUEST - malformed line", results.get(1).getEnvironment());
+		assertEquals("INVALID_REQUEST - from, to and amount are required", results.get(2).getEnvironment());
+		assertEquals("USD", results.get(2).getFrom());
+		assertEquals("JPY", results.get(3).getTo());
+	}
+
+	@Test
+	void fallsBackForALineThatFailsToConvert() {
+		given(currencyService.convertCurrency(eq("USD"), eq("XYZ"), any()))
+				.willThrow(new RuntimeException("no rate"));
+		given(currencyService.createBulkFallback(eq("USD"), eq("XYZ"), any()))
+				.willReturn(conversion("USD", "XYZ", "Fallback - Individual conversion failed"));
+
+		List<CurrencyConversion> results = convert(line("USD", "XYZ", "10"), line("USD", "JPY", "10"));
+
+		assertEquals("Fallback - Individual conversion failed", results.get(0).getEnvironment());
+		assertEquals("converted", results.get(1).getEnvironment());
+	}
+
+	private List<CurrencyConversion> convert(String... lines) {
+		byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+		return service.convert(new ByteArrayInputStream(body)).collectList().block(Duration.ofSeconds(5));
+	}
+
+	private static String line(String from, String to, String amount) {
+		return "{\"from\":\"" + from + "\",\"to\":\"" + to + "\",\"amount\":" + amount + "}";
+	}
+
+	private static CurrencyConversion conversion(String from, String to, String environment) {
+		return new CurrencyConversion(1L, from, to, BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN, environment);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
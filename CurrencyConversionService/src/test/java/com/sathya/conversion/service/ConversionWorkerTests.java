@@ -0,0 +1,166 @@
+package com.sathya.conversion.service;
+
+import com.rabbitmq.client.Channel;
+import com.sathya.conversion.cache.RateCache;
+import com.sathya.conversion.config.RabbitMQConfig;
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.model.CurrencyConversionMessage;
+import com.sathya.conversion.proxy.CurrencyExchangeProxy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ConversionWorkerTests {
+
+	private final CurrencyExchangeProxy proxy = mock(CurrencyExchangeProxy.class);
+	private final MessageProducer messageProducer = mock(MessageProducer.class);
+	private final Channel channel = mock(Channel.class);
+	private final Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ConversionWorker worker;
+
+	ConversionWorkerTests() {
+		CurrencyService currencyService = new CurrencyService();
+		ReflectionTestUtils.setField(currencyService, "exchangeProxy", proxy);
+		ReflectionTestUtils.setField(currencyService, "messageProducer", messageProducer);
+		ReflectionTestUtils.setField(currencyService, "rateCache", new RateCache(proxy, meterRegistry,
+				Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMinutes(30), 100, 1));
+		worker = new ConversionWorker(currencyService, messageProducer, converter, meterRegistry);
+	}
+
+	@Test
+	void looksUpRatesOncePerSourceCurrencyAndAcksTheBatch() throws Exception {
+		given(proxy.retrieveExchangeValues(eq("USD"), eq(List.of("INR", "EUR"))))
+				.willReturn(List.of(rate("USD", "INR", "83.00"), rate("USD", "EUR", "0.92")));
+		given(proxy.retrieveExchangeValues(eq("GBP"), eq(List.of("INR"))))
+				.willReturn(List.of(rate("GBP", "INR", "105.00")));
+
+		worker.onConversionRequests(List.of(
+				request(1, 1L, "USD", "INR", "10"),
+				request(2, 2L, "USD", "EUR", "100"),
+				request(3, 3L, "USD", "INR", "2"),
+				request(4, 4L, "GBP", "INR", "1")), channel);
+
+		verify(proxy).retrieveExchangeValues(eq("USD"), eq(List.of("INR", "EUR")));
+		verify(proxy).retrieveExchangeValues(eq("GBP"), eq(List.of("INR")));
+		// A single cumulative ack for the whole batch
+		verify(channel).basicAck(4, true);
+		verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+
+		List<CurrencyConversionMessage> published = published(4);
+		assertEquals(List.of(1L, 2L, 3L, 4L), published.stream().map(CurrencyConversionMessage::getConversionId).toList());
+		assertEquals(new BigDecimal("830.00"), published.get(0).getConvertedAmount());
+		assertEquals(new BigDecimal("92.00"), published.get(1).getConvertedAmount());
+		assertEquals(new BigDecimal("166.00"), published.get(2).getConvertedAmount());
+		assertEquals(new BigDecimal("105.00"), published.get(3).getConvertedAmount());
+		assertTrue(published.stream().allMatch(message -> "CONVERSION_COMPLETED".equals(message.getStatus())));
+		assertEquals(4, counter("converted"));
+	}
+
+	@Test
+	void deadLettersInvalidRequests() throws Exception {
+		given(proxy.retrieveExchangeValues(eq("USD"), eq(List.of("INR"))))
+				.willReturn(List.of(rate("USD", "INR", "83.00")));
+		CurrencyConversionMessage completed = new CurrencyConversionMessage(5L, "USD", "INR", BigDecimal.TEN,
+				new BigDecimal("830.00"), new BigDecimal("83.00"), "CONVERSION_COMPLETED");
+
+		worker.onConversionRequests(List.of(
+				request(1, 1L, "USD", "INR", "10"),
+				raw(2, "not json"),
+				request(3, 3L, "USD", null, "10"),
+				toMessage(4, completed)), channel);
+
+		verify(channel).basicAck(1, false);
+		verify(channel).basicNack(2, false, false);
+		verify(channel).basicNack(3, false, false);
+		// A completed event has no business on the request queue
+		verify(channel).basicNack(4, false, false);
+		assertEquals(List.of(1L), published(1).stream().map(CurrencyConversionMessage::getConversionId).toList());
+		assertEquals(1, counter("converted"));
+		assertEquals(3, counter("dead_lettered"));
+	}
+
+	@Test
+	void deadLettersRequestsWithoutARealRate() throws Exception {
+		// EUR is missing from the response and GBP's lookup fails: neither may complete on FALLBACK_RATES
+		given(proxy.retrieveExchangeValues(eq("USD"), eq(List.of("INR", "EUR"))))
+				.willReturn(List.of(rate("USD", "INR", "83.00")));
+		given(proxy.retrieveExchangeValues(eq("GBP"), eq(List.of("INR"))))
+				.willThrow(new RuntimeException("exchange service down"));
+
+		worker.onConversionRequests(List.of(
+				request(1, 1L, "USD", "INR", "10"),
+				request(2, 2L, "USD", "EUR", "100"),
+				request(3, 3L, "GBP", "INR", "1")), channel);
+
+		verify(channel).basicAck(1, false);
+		verify(channel).basicNack(2, false, false);
+		verify(channel).basicNack(3, false, false);
+		List<CurrencyConversionMessage> published = published(1);
+		assertEquals(1L, published.get(0).getConversionId());
+		assertEquals(new BigDecimal("830.00"), published.get(0).getConvertedAmount());
+		assertEquals(1, counter("converted"));
+		assertEquals(2, counter("dead_lettered"));
+	}
+
+	@Test
+	void consumesOnlyTheRequestQueue() throws Exception {
+		RabbitListener listener = ConversionWorker.class
+				.getMethod("onConversionRequests", List.class, Channel.class)
+				.getAnnotation(RabbitListener.class);
+		assertArrayEquals(new String[] { RabbitMQConfig.CONVERSION_REQUEST_QUEUE }, listener.queues());
+	}
+
+	private List<CurrencyConversionMessage> published(int count) throws Exception {
+		ArgumentCaptor<CurrencyConversionMessage> captor = ArgumentCaptor.forClass(CurrencyConversionMessage.class);
+		verify(messageProducer, times(count)).sendConversionMessage(captor.capture());
+		return new ArrayList<>(captor.getAllValues());
+	}
+
+	private double counter(String outcome) {
+		return meterRegistry.get("currency.worker.messages").tag("outcome", outcome).counter().count();
+	}
+
+	private Message request(long tag, Long id, String from, String to, String amount) {
+		return toMessage(tag, new CurrencyConversionMessage(id, from, to, new BigDecimal(amount), null, null, "ASYNC_REQUEST"));
+	}
+
+	private Message toMessage(long tag, CurrencyConversionMessage payload) {
+		MessageProperties properties = new MessageProperties();
+		properties.setDeliveryTag(tag);
+		return converter.toMessage(payload, properties);
+	}
+
+	private static Message raw(long tag, String body) {
+		MessageProperties properties = new MessageProperties();
+		properties.setDeliveryTag(tag);
+		properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+		return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+	}
+
+	private static CurrencyConversion rate(String from, String to, String multiple) {
+		return new CurrencyConversion(1L, from, to, new BigDecimal(multiple), null, null, "8000");
+	}
+}
@@ -0,0 +1,101 @@
+package com.sathya.conversion.service;
+
+import com.sathya.conversion.cache.RateCache;
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.proxy.CurrencyExchangeProxy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class CurrencyServiceTests {
+
+	private final CurrencyExchangeProxy proxy = mock(CurrencyExchangeProxy.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RateCache rateCache = new RateCache(proxy, meterRegistry,
+			Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMinutes(30), 100, 1);
+	private final BulkExecutor bulkExecutor = new BulkExecutor(16, 100, 4, Duration.ofMillis(500));
+	private final CurrencyService currencyService = new CurrencyService();
+
+	CurrencyServiceTests() {
+		ReflectionTestUtils.setField(currencyService, "exchangeProxy", proxy);
+		ReflectionTestUtils.setField(currencyService, "messageProducer", mock(MessageProducer.class));
+		ReflectionTestUtils.setField(currencyService, "rateCache", rateCache);
+		ReflectionTestUtils.setField(currencyService, "bulkExecutor", bulkExecutor);
+	}
+
+	@AfterEach
+	void shutdown() {
+		bulkExecutor.shutdown();
+		rateCache.shutdown();
+	}
+
+	@Test
+	void fetchesOnlyUncachedRatesInOneBatchCall() {
+		rateCache.put("USD", "INR", rate("USD", "INR", "83.00"), rateCache.changeSequence());
+		given(proxy.retrieveExchangeValues(eq("USD"), eq(List.of("EUR", "jpy"))))
+				.willReturn(List.of(rate("USD", "EUR", "0.92"), rate("USD", "JPY", "150.00")));
+
+		Map<String, CurrencyConversion> rates = currencyService.fetchRatesOrEmpty("USD", List.of("INR", "EUR", "jpy"));
+
+		verify(proxy).retrieveExchangeValues(eq("USD"), eq(List.of("EUR", "jpy")));
+		assertEquals(new BigDecimal("83.00"), rates.get("INR").getConversionMultiple());
+		assertEquals(new BigDecimal("0.92"), rates.get("EUR").getConversionMultiple());
+		// Keyed by upper-case target whatever the caller sent
+		assertEquals(new BigDecimal("150.00"), rates.get("JPY").getConversionMultiple());
+
+		// The batch result is cached for the next lookup
+		currencyService.fetchRatesOrEmpty("USD", List.of("EUR"));
+		verify(proxy).retrieveExchangeValues(eq("USD"), eq(List.of("EUR", "jpy")));
+	}
+
+	@Test
+	void skipsTheCallWhenEveryRateIsCached() {
+		rateCache.put("USD", "INR", rate("USD", "INR", "83.00"), rateCache.changeSequence());
+
+		Map<String, CurrencyConversion> rates = currencyService.fetchRatesOrEmpty("USD", List.of("INR"));
+
+		assertEquals(1, rates.size());
+		verify(proxy, never()).retrieveExchangeValues(eq("USD"), eq(List.of("INR")));
+	}
+
+	@Test
+	void returnsWhatItHasWhenTheExchangeServiceIsDown() {
+		rateCache.put("USD", "INR", rate("USD", "INR", "83.00"), rateCache.changeSequence());
+		given(proxy.retrieveExchangeValues(eq("USD"), eq(List.of("EUR"))))
+				.willThrow(new RuntimeException("exchange service down"));
+
+		Map<String, CurrencyConversion> rates = currencyService.fetchRatesOrEmpty("USD", List.of("INR", "EUR"));
+
+		assertEquals(Map.of("INR", rates.get("INR")), rates);
+	}
+
+	@Test
+	void bulkConvertKeepsTargetOrderAndFallsBackForMissingPairs() {
+		given(proxy.retrieveExchangeValues(eq("USD"), eq(List.of("INR", "EUR"))))
+				.willReturn(List.of(rate("USD", "INR", "83.00")));
+
+		List<CurrencyConversion> results = currencyService.bulkConvert("USD", BigDecimal.TEN, List.of("INR", "EUR"));
+
+		assertEquals(List.of("INR", "EUR"), results.stream().map(CurrencyConversion::getTo).toList());
+		assertEquals(new BigDecimal("830.00"), results.get(0).getTotalCalculatedAmount());
+		assertEquals(currencyService.createFallbackResponse("USD", "EUR").getConversionMultiple(),
+				results.get(1).getConversionMultiple());
+	}
+
+	private static CurrencyConversion rate(String from, String to, String multiple) {
+		return new CurrencyConversion(1L, from, to, new BigDecimal(multiple), null, null, "8000");
+	}
+}
@@ -0,0 +1,208 @@
+package com.sathya.conversion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sathya.conversion.config.RabbitMQConfig;
+import com.sathya.conversion.messaging.ConversionMessageCodec;
+import com.sathya.conversion.messaging.NegotiatingMessageConverter;
+import com.sathya.conversion.model.CurrencyConversionMessage;
+import com.sathya.conversion.outbox.OutboxLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageProducerTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+
+	// Messages in the order they reached the (mocked) broker, and the ack/nack to give each
+	private final List<CurrencyConversionMessage> sent = new CopyOnWriteArrayList<>();
+	private final List<String> contentTypes = new CopyOnWriteArrayList<>();
+	private final List<String> routingKeys = new CopyOnWriteArrayList<>();
+	private volatile BooleanSupplier ack = () -> true;
+
+	@TempDir
+	Path outboxDir;
+
+	private OutboxLog outbox;
+	private MessageProducer producer;
+
+	MessageProducerTests() {
+		when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+				.thenAnswer(invocation -> invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitTemplate));
+		doAnswer(invocation -> {
+			routingKeys.add(invocation.getArgument(1));
+			sent.add(invocation.getArgument(2));
+			contentTypes.add(MessageProperties.CONTENT_TYPE_JSON);
+			CorrelationData correlation = invocation.getArgument(4);
+			correlation.getFuture().complete(new CorrelationData.Confirm(ack.getAsBoolean(), null));
+			return null;
+		}).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+		doAnswer(invocation -> {
+			routingKeys.add(invocation.getArgument(1));
+			Message message = invocation.getArgument(2);
+			sent.add(ConversionMessageCodec.decode(message.getBody()));
+			contentTypes.add(message.getMessageProperties().getContentType());
+			CorrelationData correlation = invocation.getArgument(3);
+			correlation.getFuture().complete(new CorrelationData.Confirm(ack.getAsBoolean(), null));
+			return null;
+		}).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+	}
+
+	@AfterEach
+	void shutdown() {
+		producer.shutdown();
+		outbox.close();
+	}
+
+	@Test
+	void resendsNackedMessagesUntilConfirmed() throws Exception {
+		producer = producer();
+		int[] calls = new int[1];
+		ack = () -> ++calls[0] > 2;
+
+		producer.sendConversionMessage(message(1L));
+
+		await(() -> counter("confirmed") == 2);
+		assertEquals(4, sent.size());
+		assertEquals(2, counter("retried"));
+		assertEquals(0, counter("failed"));
+		assertEquals("CONVERSION_COMPLETED", sent.get(2).getStatus());
+		assertEquals("NOTIFICATION_SENT", sent.get(3).getStatus());
+		assertEquals(2, meterRegistry.get("currency.publisher.publish.latency").timer().count());
+	}
+
+	@Test
+	void resendsOnlyUnconfirmedEventsAfterRestart() throws Exception {
+		// Broker down: nothing is confirmed before the service stops
+		producer = producer();
+		ack = () -> false;
+		producer.sendConversionMessage(message(1L));
+		producer.sendConversionMessage(message(2L));
+		await(() -> sent.size() >= 4);
+		producer.shutdown();
+		assertEquals(0, counter("confirmed"));
+
+		// Broker back after a restart: all four events are recovered from the outbox and confirmed
+		ack = () -> true;
+		sent.clear();
+		producer = producer();
+		assertEquals(4, producer.pendingCount());
+		await(() -> counter("confirmed") == 4);
+		assertEquals(List.of(1L, 1L, 2L, 2L), sent.stream().map(CurrencyConversionMessage::getConversionId).toList());
+		producer.shutdown();
+
+		// Checkpointed: a further restart sends nothing again
+		sent.clear();
+		producer = producer();
+		assertEquals(0, producer.pendingCount());
+		Thread.sleep(200);
+		assertTrue(sent.isEmpty());
+	}
+
+	@Test
+	void sendsBinaryOnlyOnOptedInRoutingKeys() throws Exception {
+		producer = producer(List.of(RabbitMQConfig.CONVERSION_ROUTING_KEY));
+
+		producer.sendConversionMessage(message(1L));
+
+		await(() -> counter("confirmed") == 2);
+		assertEquals(List.of(NegotiatingMessageConverter.CONTENT_TYPE, MessageProperties.CONTENT_TYPE_JSON), contentTypes);
+		assertEquals(List.of("CONVERSION_COMPLETED", "NOTIFICATION_SENT"),
+				sent.stream().map(CurrencyConversionMessage::getStatus).toList());
+		assertEquals(new BigDecimal("830.00"), sent.get(0).getConvertedAmount());
+	}
+
+	@Test
+	void keepsNotificationsJson() {
+		assertThrows(IllegalArgumentException.class, () -> producer(List.of(RabbitMQConfig.NOTIFICATION_ROUTING_KEY)));
+		producer = producer();
+	}
+
+	@Test
+	void keepsCompletedEventsOnTheConversionQueueAndRequestsOnTheirOwn() throws Exception {
+		producer = producer();
+
+		producer.sendConversionMessage(message(1L));
+		await(() -> counter("confirmed") == 2);
+		producer.sendConversionRequest(new CurrencyConversionMessage(2L, "USD", "INR", BigDecimal.TEN, null, null, "ASYNC_REQUEST"));
+		await(() -> counter("confirmed") == 4);
+
+		assertEquals("CONVERSION_COMPLETED", sent.get(0).getStatus());
+		assertEquals(RabbitMQConfig.CONVERSION_QUEUE, boundQueue(routingKeys.get(0)));
+		assertEquals("ASYNC_REQUEST", sent.get(2).getStatus());
+		assertEquals(RabbitMQConfig.CONVERSION_REQUEST_QUEUE, boundQueue(routingKeys.get(2)));
+	}
+
+	// The queue RabbitMQConfig binds to the routing key
+	private static String boundQueue(String routingKey) {
+		RabbitMQConfig config = new RabbitMQConfig();
+		TopicExchange exchange = config.exchange();
+		List<Binding> bindings = List.of(
+				config.conversionBinding(config.conversionQueue(), exchange),
+				config.conversionRequestBinding(config.conversionRequestQueue(), exchange),
+				config.notificationBinding(config.notificationQueue(), exchange),
+				config.deadLetterBinding(config.deadLetterQueue(), exchange));
+		return bindings.stream()
+				.filter(binding -> binding.getRoutingKey().equals(routingKey))
+				.map(Binding::getDestination)
+				.reduce((first, second) -> fail("routing key " + routingKey + " bound to several queues"))
+				.orElseGet(() -> fail("routing key " + routingKey + " not bound"));
+	}
+
+	// A fresh producer over the same outbox directory, as after a restart
+	private MessageProducer producer() {
+		return producer(List.of());
+	}
+
+	private MessageProducer producer(List<String> binaryRoutingKeys) {
+		if (outbox != null) {
+			outbox.close();
+		}
+		outbox = new OutboxLog(outboxDir, DataSize.ofKilobytes(64), 4, false);
+		return new MessageProducer(rabbitTemplate, outbox, new ObjectMapper(), meterRegistry, Duration.ofMillis(10), 10,
+				Duration.ofMillis(200), Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(300), binaryRoutingKeys);
+	}
+
+	private double counter(String outcome) {
+		return meterRegistry.get("currency.publisher.messages").tag("outcome", outcome).counter().count();
+	}
+
+	private static CurrencyConversionMessage message(Long id) {
+		return new CurrencyConversionMessage(id, "USD", "INR", new BigDecimal("10"), new BigDecimal("830.00"),
+				new BigDecimal("83.00"), "CONVERSION_COMPLETED");
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not met in time");
+			Thread.sleep(10);
+		}
+	}
+}
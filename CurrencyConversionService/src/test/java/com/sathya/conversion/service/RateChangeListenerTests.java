@@ -0,0 +1,156 @@
+package com.sathya.conversion.service;
+
+import com.rabbitmq.client.Channel;
+import com.sathya.conversion.cache.RateCache;
+import com.sathya.conversion.config.RabbitMQConfig;
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.proxy.CurrencyExchangeProxy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.test.TestRabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Delivers JSON exactly as currency-exchange-service publishes it (including its type
+ * header) through a listener container, with TestRabbitTemplate standing in for the broker.
+ */
+@SpringJUnitConfig
+class RateChangeListenerTests {
+
+	@Autowired
+	private TestRabbitTemplate broker;
+
+	@Autowired
+	private Queue rateChangeQueue;
+
+	@Autowired
+	private RateCache rateCache;
+
+	@Autowired
+	private RateChangeListener listener;
+
+	@Test
+	void appliesCreatedAndUpdatedRates() {
+		publish("CREATED", "USD", "INR", "83.00", 10);
+		assertEquals(new BigDecimal("83.00"), rateCache.get("USD", "INR").getConversionMultiple());
+
+		publish("UPDATED", "USD", "INR", "84.50", 11);
+		assertEquals(new BigDecimal("84.50"), rateCache.get("USD", "INR").getConversionMultiple());
+	}
+
+	@Test
+	void ignoresRedeliveredAndOutdatedEvents() {
+		publish("UPDATED", "EUR", "INR", "88.00", 20);
+		publish("UPDATED", "EUR", "INR", "88.50", 21);
+
+		// Redelivery of 21 and a late 20 change nothing
+		publish("UPDATED", "EUR", "INR", "88.50", 21);
+		publish("UPDATED", "EUR", "INR", "88.00", 20);
+		assertEquals(new BigDecimal("88.50"), rateCache.get("EUR", "INR").getConversionMultiple());
+	}
+
+	@Test
+	void deleteEvictsPairAndDerivedRates() {
+		publish("UPDATED", "GBP", "INR", "105.00", 30);
+		rateCache.put("INR", "GBP", new CurrencyConversion(null, "INR", "GBP", new BigDecimal("0.0095"), null, null, "8000"),
+				rateCache.changeSequence());
+
+		publish("DELETED", "GBP", "INR", null, 31);
+		assertNull(rateCache.get("GBP", "INR"));
+		assertNull(rateCache.get("INR", "GBP"));
+	}
+
+	@Test
+	void clearsTheCacheWhenTheRateChangeConsumerRestarts() {
+		publish("UPDATED", "JPY", "INR", "0.55", 40);
+
+		// Another container's consumer says nothing about missed rate changes
+		listener.onConsumerStarted(new AsyncConsumerStartedEvent(container("currency-conversion-request-queue"), null));
+		assertNotNull(rateCache.get("JPY", "INR"));
+
+		listener.onConsumerStarted(new AsyncConsumerStartedEvent(container(rateChangeQueue.getName()), null));
+		assertNull(rateCache.get("JPY", "INR"));
+	}
+
+	private static SimpleMessageListenerContainer container(String queue) {
+		SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
+		container.setQueueNames(queue);
+		return container;
+	}
+
+	private void publish(String type, String from, String to, String rate, long version) {
+		String json = String.format(
+				"{\"eventId\":\"e-%d\",\"type\":\"%s\",\"id\":1001,\"from\":\"%s\",\"to\":\"%s\",\"conversionMultiple\":%s,\"version\":%d,\"timestamp\":0}",
+				version, type, from, to, rate, version);
+
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+		properties.setHeader("__TypeId__", "com.sathya.exchangeservice.model.RateChangeEvent");
+
+		// TestRabbitTemplate routes by queue name rather than exchange bindings
+		broker.send(rateChangeQueue.getName(), new Message(json.getBytes(StandardCharsets.UTF_8), properties));
+	}
+
+	@Configuration
+	@EnableRabbit
+	@Import({ RabbitMQConfig.class, RateChangeListener.class })
+	static class Config {
+
+		@Bean
+		public RateCache rateCache() {
+			return new RateCache(mock(CurrencyExchangeProxy.class), new SimpleMeterRegistry(),
+					Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMinutes(30), 100, 1);
+		}
+
+		@Bean
+		public TestRabbitTemplate broker(ConnectionFactory connectionFactory) {
+			return new TestRabbitTemplate(connectionFactory);
+		}
+
+		@Bean
+		public ConnectionFactory connectionFactory() {
+			ConnectionFactory factory = mock(ConnectionFactory.class);
+			Connection connection = mock(Connection.class);
+			Channel channel = mock(Channel.class);
+			willReturn(connection).given(factory).createConnection();
+			willReturn(channel).given(connection).createChannel(anyBoolean());
+			given(channel.isOpen()).willReturn(true);
+			return factory;
+		}
+
+		@Bean
+		public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+				MessageConverter jsonMessageConverter) {
+			SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+			factory.setConnectionFactory(connectionFactory);
+			factory.setMessageConverter(jsonMessageConverter);
+			// TestRabbitTemplate invokes the listeners directly; no consumers are needed
+			factory.setAutoStartup(false);
+			return factory;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.sathya.conversion.service;
+
+import com.sathya.conversion.cache.RateCache;
+import com.sathya.conversion.client.ReactiveExchangeClient;
+import com.sathya.conversion.model.CurrencyConversion;
+import com.sathya.conversion.model.CurrencyConversionMessage;
+import com.sathya.conversion.proxy.CurrencyExchangeProxy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReactiveCurrencyServiceTests {
+
+	private final ReactiveExchangeClient exchangeClient = mock(ReactiveExchangeClient.class);
+	private final MessageProducer messageProducer = mock(MessageProducer.class);
+	private final RateCache rateCache = new RateCache(mock(CurrencyExchangeProxy.class), new SimpleMeterRegistry(),
+			Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMinutes(30), 100, 1);
+	private final CurrencyService currencyService = new CurrencyService();
+	private final ReactiveCurrencyService service = new ReactiveCurrencyService(1, 100);
+
+	ReactiveCurrencyServiceTests() {
+		ReflectionTestUtils.setField(currencyService, "messageProducer", messageProducer);
+		ReflectionTestUtils.setField(service, "exchangeClient", exchangeClient);
+		ReflectionTestUtils.setField(service, "rateCache", rateCache);
+		ReflectionTestUtils.setField(service, "currencyService", currencyService);
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+		rateCache.shutdown();
+	}
+
+	@Test
+	void convertsWithTheExchangeRateAndCachesIt() {
+		given(exchangeClient.retrieveExchangeValue("USD", "INR")).willReturn(Mono.just(rate("USD", "INR", "83.00")));
+
+		CurrencyConversion first = service.convertCurrency("USD", "INR", BigDecimal.TEN).block();
+		CurrencyConversion second = service.convertCurrency("USD", "INR", BigDecimal.ONE).block();
+
+		assertEquals(new BigDecimal("830.00"), first.getTotalCalculatedAmount());
+		assertEquals(new BigDecimal("83.00"), second.getTotalCalculatedAmount());
+		verify(exchangeClient, times(1)).retrieveExchangeValue("USD", "INR");
+		// Published off the request path, once per conversion
+		verify(messageProducer, timeout(1_000).times(2)).sendConversionMessage(any(CurrencyConversionMessage.class));
+	}
+
+	@Test
+	void fallsBackWhenTheExchangeServiceFails() {
+		given(exchangeClient.retrieveExchangeValue("USD", "INR"))
+				.willReturn(Mono.error(new IllegalStateException("exchange service down")));
+
+		CurrencyConversion result = service.convertCurrency("USD", "INR", BigDecimal.TEN).block();
+
+		assertEquals(currencyService.createFallbackResponse("USD", "INR").getConversionMultiple(), result.getConversionMultiple());
+		// A fallback rate is never cached as if it were real
+		assertNull(rateCache.get("USD", "INR"));
+	}
+
+	@Test
+	void bulkConvertUsesOneBatchCallAndKeepsTargetOrder() {
+		rateCache.put("USD", "GBP", rate("USD", "GBP", "0.80"), rateCache.changeSequence());
+		given(exchangeClient.retrieveExchangeValues(eq("USD"), eq(List.of("INR", "EUR"))))
+				.willReturn(Mono.just(List.of(rate("USD", "INR", "83.00"))));
+
+		List<CurrencyConversion> results = service.bulkConvert("USD", BigDecimal.TEN, List.of("INR", "GBP", "EUR"))
+				.collectList().block();
+
+		assertEquals(List.of("INR", "GBP", "EUR"), results.stream().map(CurrencyConversion::getTo).toList());
+		assertEquals(new BigDecimal("830.00"), results.get(0).getTotalCalculatedAmount());
+		assertEquals(new BigDecimal("8.00"), results.get(1).getTotalCalculatedAmount());
+		// EUR was not returned: fallback rate in its position
+		assertEquals(currencyService.createFallbackResponse("USD", "EUR").getConversionMultiple(),
+				results.get(2).getConversionMultiple());
+		verify(exchangeClient, never()).retrieveExchangeValue(anyString(), anyString());
+	}
+
+	@Test
+	void bulkConvertFallsBackForEveryTargetWhenTheBatchCallFails() {
+		given(exchangeClient.retrieveExchangeValues(eq("USD"), eq(List.of("INR", "EUR"))))
+				.willReturn(Mono.error(new IllegalStateException("exchange service down")));
+
+		List<CurrencyConversion> results = service.bulkConvert("USD", BigDecimal.TEN, List.of("INR", "EUR"))
+				.collectList().block();
+
+		assertEquals(2, results.size());
+		assertEquals(currencyService.createFallbackResponse("USD", "INR").getConversionMultiple(),
+				results.get(0).getConversionMultiple());
+	}
+
+	private static CurrencyConversion rate(String from, String to, String multiple) {
+		return new CurrencyConversion(1L, from, to, new BigDecimal(multiple), null, null, "8000");
+	}
+}
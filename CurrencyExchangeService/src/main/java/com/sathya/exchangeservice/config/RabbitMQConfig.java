@@ -0,0 +1,29 @@
+package com.sathya.exchangeservice.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    // Exchange (shared with currency-conversion-service)
+    public static final String EXCHANGE_NAME = "currency-exchange";
+    
+    // Routing Keys
+    public static final String RATE_CHANGE_ROUTING_KEY = "rate.change.key";
+
+    // Topic Exchange
+    @Bean
+    public TopicExchange exchange() {
+        return new TopicExchange(EXCHANGE_NAME);
+    }
+    
+    // Message converter for JSON (picked up by the auto-configured RabbitTemplate)
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
@@ -0,0 +1,14 @@
+package com.sathya.exchangeservice.config;
+
+import com.sathya.discovery.eureka.RegistrySnapshot;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Keeps the last-known Eureka registry on disk for SnapshotBackupRegistry, which
+ * eureka.client.backup-registry-impl points at.
+ */
+@Configuration
+@Import(RegistrySnapshot.class)
+public class RegistrySnapshotConfig {
+}
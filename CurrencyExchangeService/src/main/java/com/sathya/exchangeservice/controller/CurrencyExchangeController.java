@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -31,6 +32,28 @@ public class CurrencyExchangeController {
         return exchange;
     }
     
+    // GET - Rates from one base currency to many targets, e.g. /currency-exchange/from/USD/batch?to=INR,EUR
+    @GetMapping("/currency-exchange/from/{from}/batch")
+    public List<CurrencyExchange> retrieveExchangeValues(
+            @PathVariable String from,
+            @RequestParam List<String> to) {
+        
+        List<CurrencyExchange> pairs = new ArrayList<>(to.size());
+        for (String target : to) {
+            pairs.add(new CurrencyExchange(null, from, target, null));
+        }
+        return retrieveExchangeValues(pairs);
+    }
+    
+    // POST - Rates for arbitrary pairs; only from/to of each element are read
+    @PostMapping("/currency-exchange/batch")
+    public List<CurrencyExchange> retrieveExchangeValues(@RequestBody List<CurrencyExchange> pairs) {
+        List<CurrencyExchange> rates = currencyExchangeService.getExchangeRates(pairs);
+        String port = environment.getProperty("local.server.port");
+        rates.forEach(rate -> rate.setEnvironment(port));
+        return rates;
+    }
+    
     // GET - All exchange rates
     @GetMapping("/currency-exchange/all")
     public List<CurrencyExchange> getAllExchangeRates() {
@@ -0,0 +1,73 @@
+package com.sathya.exchangeservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Published on every create/update/delete of a rate. Consumers apply an event only
+ * if its version is newer than the last one they applied for the pair, so
+ * redeliveries and reordering are harmless.
+ */
+public class RateChangeEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private String eventId;
+    private Type type;
+    private Long id;
+    private String from;
+    private String to;
+    private BigDecimal conversionMultiple;
+    private long version;
+    private long timestamp;
+    
+    // Constructors
+    public RateChangeEvent() {}
+    
+    public RateChangeEvent(String eventId, Type type, Long id, String from, String to,
+                           BigDecimal conversionMultiple, long version, long timestamp) {
+        this.eventId = eventId;
+        this.type = type;
+        this.id = id;
+        this.from = from;
+        this.to = to;
+        this.conversionMultiple = conversionMultiple;
+        this.version = version;
+        this.timestamp = timestamp;
+    }
+    
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+    
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+    
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+    
+    public BigDecimal getConversionMultiple() { return conversionMultiple; }
+    public void setConversionMultiple(BigDecimal conversionMultiple) { this.conversionMultiple = conversionMultiple; }
+    
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+    
+    @Override
+    public String toString() {
+        return "RateChangeEvent{" +
+                "type=" + type +
+                ", from='" + from + '\'' +
+                ", to='" + to + '\'' +
+                ", conversionMultiple=" + conversionMultiple +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package com.sathya.exchangeservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+
+/**
+ * A rate change waiting to be published, written in the same transaction as the rate
+ * itself and deleted once the broker has confirmed it (see RateChangePublisher).
+ */
+@Entity
+@Table(name = "rate_change_outbox")
+public class RateChangeOutboxEntry {
+    
+    // Publication order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    private String eventId;
+    
+    @Enumerated(EnumType.STRING)
+    private RateChangeEvent.Type type;
+    
+    private Long rateId;
+    
+    @Column(name = "currency_from")
+    private String from;
+    
+    @Column(name = "currency_to")
+    private String to;
+    
+    private BigDecimal conversionMultiple;
+    private long version;
+    private long timestamp;
+    
+    // Constructors
+    public RateChangeOutboxEntry() {}
+    
+    public RateChangeOutboxEntry(RateChangeEvent event) {
+        this.eventId = event.getEventId();
+        this.type = event.getType();
+        this.rateId = event.getId();
+        this.from = event.getFrom();
+        this.to = event.getTo();
+        this.conversionMultiple = event.getConversionMultiple();
+        this.version = event.getVersion();
+        this.timestamp = event.getTimestamp();
+    }
+    
+    public RateChangeEvent toEvent() {
+        return new RateChangeEvent(eventId, type, rateId, from, to, conversionMultiple, version, timestamp);
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+}
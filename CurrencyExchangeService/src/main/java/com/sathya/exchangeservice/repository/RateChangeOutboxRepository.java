@@ -0,0 +1,10 @@
+package com.sathya.exchangeservice.repository;
+
+import com.sathya.exchangeservice.model.RateChangeOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RateChangeOutboxRepository extends JpaRepository<RateChangeOutboxEntry, Long> {
+    List<RateChangeOutboxEntry> findTop100ByOrderByIdAsc();
+}
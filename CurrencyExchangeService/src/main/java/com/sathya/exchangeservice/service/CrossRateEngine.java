@@ -0,0 +1,296 @@
+package com.sathya.exchangeservice.service;
+
+import com.sathya.exchangeservice.model.CurrencyExchange;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Derives any-to-any rates from the stored pairs. Every stored pair A->B is an edge,
+ * and so is its inverse B->A (1/rate) unless B->A is stored itself. Missing pairs are
+ * triangulated along the path with the fewest hops through pivot currencies
+ * (e.g. USD->INR->EUR).
+ *
+ * All derived rates live in a dense N x N matrix published as an immutable snapshot,
+ * so a lookup is two table reads and one array read. Writes update the matrix
+ * incrementally: a changed rate only recomputes products along the existing paths,
+ * a new pair relaxes hop counts through the new edge, and only removals or new
+ * currencies trigger a full rebuild.
+ */
+@Component
+public class CrossRateEngine {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+    private static final int CODE_SPACE = 1 << 15;
+
+    // Stored (direct) rates keyed by packed pair; only touched under writeLock
+    private final Map<Integer, Double> directRates = new HashMap<>();
+
+    // Writes rebuild the matrix while holding the lock; readers never take it
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Matrix matrix = Matrix.EMPTY;
+
+    /**
+     * Rate for any pair reachable through stored rates, or NaN if the currencies
+     * are unknown or not connected.
+     */
+    public double getRate(String from, String to) {
+        Matrix current = matrix;
+        int i = current.indexOf(from);
+        int j = current.indexOf(to);
+        if (i < 0 || j < 0) {
+            return Double.NaN;
+        }
+        return current.rates[i * current.size + j];
+    }
+
+    // Number of conversions along the derived path, or -1 if there is none
+    public int getHops(String from, String to) {
+        Matrix current = matrix;
+        int i = current.indexOf(from);
+        int j = current.indexOf(to);
+        if (i < 0 || j < 0 || current.hops[i * current.size + j] == UNREACHABLE) {
+            return -1;
+        }
+        return current.hops[i * current.size + j];
+    }
+
+    public void load(Collection<CurrencyExchange> exchanges) {
+        writeLock.lock();
+        try {
+            directRates.clear();
+            for (CurrencyExchange exchange : exchanges) {
+                int key = ExchangeRateIndex.pairKey(exchange.getFrom(), exchange.getTo());
+                if (key != 0 && exchange.getConversionMultiple() != null && exchange.getConversionMultiple().signum() > 0) {
+                    directRates.put(key, exchange.getConversionMultiple().doubleValue());
+                }
+            }
+            matrix = rebuild();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void put(CurrencyExchange exchange) {
+        writeLock.lock();
+        try {
+            String from = exchange.getFrom();
+            String to = exchange.getTo();
+            int key = ExchangeRateIndex.pairKey(from, to);
+            if (key == 0 || exchange.getConversionMultiple() == null || exchange.getConversionMultiple().signum() <= 0) {
+                return;
+            }
+            double rate = exchange.getConversionMultiple().doubleValue();
+
+            Double previous = directRates.put(key, rate);
+            Matrix current = matrix;
+            int u = current.indexOf(from);
+            int v = current.indexOf(to);
+
+            if (u < 0 || v < 0) {
+                // New currency: the matrix changes shape
+                matrix = rebuild();
+            } else if (previous != null || current.hops[u * current.size + v] == 1) {
+                // Same topology (the edge or its inverse already existed): only products change
+                matrix = current.withRates(edgeRates(current));
+            } else {
+                matrix = current.withEdgeAdded(u, v, edgeRates(current));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(String from, String to) {
+        writeLock.lock();
+        try {
+            int key = ExchangeRateIndex.pairKey(from, to);
+            if (directRates.remove(key) != null) {
+                // Paths through the edge may disappear entirely; recompute from scratch
+                matrix = rebuild();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int currencyCount() {
+        return matrix.size;
+    }
+
+    // Edge rates over the current currency set: stored pairs plus inverses of stored pairs
+    private double[] edgeRates(Matrix shape) {
+        int n = shape.size;
+        double[] edges = new double[n * n];
+        Arrays.fill(edges, Double.NaN);
+
+        directRates.forEach((key, rate) -> {
+            int i = shape.indexOfCode(key >>> 15);
+            int j = shape.indexOfCode(key & (CODE_SPACE - 1));
+            edges[i * n + j] = rate;
+        });
+        directRates.forEach((key, rate) -> {
+            int i = shape.indexOfCode(key >>> 15);
+            int j = shape.indexOfCode(key & (CODE_SPACE - 1));
+            if (Double.isNaN(edges[j * n + i])) {
+                edges[j * n + i] = 1.0 / rate;
+            }
+        });
+        return edges;
+    }
+
+    private Matrix rebuild() {
+        TreeSet<Integer> codes = new TreeSet<>();
+        directRates.keySet().forEach(key -> {
+            codes.add(key >>> 15);
+            codes.add(key & (CODE_SPACE - 1));
+        });
+
+        Matrix shape = Matrix.withCurrencies(codes);
+        return shape.withAllPaths(edgeRates(shape));
+    }
+
+    /**
+     * Immutable snapshot: currency index table, edge rates, hop counts, next-hop table
+     * and the derived rates, all as flat N x N arrays.
+     */
+    private static final class Matrix {
+        private static final Matrix EMPTY = withCurrencies(new TreeSet<>());
+
+        private final int size;
+        private final short[] indexByCode;   // packed ISO code -> index + 1 (0 = unknown)
+        private final double[] edges;
+        private final int[] hops;
+        private final int[] next;
+        private final double[] rates;
+
+        private Matrix(int size, short[] indexByCode, double[] edges, int[] hops, int[] next, double[] rates) {
+            this.size = size;
+            this.indexByCode = indexByCode;
+            this.edges = edges;
+            this.hops = hops;
+            this.next = next;
+            this.rates = rates;
+        }
+
+        static Matrix withCurrencies(TreeSet<Integer> currencyCodes) {
+            int n = currencyCodes.size();
+            short[] indexByCode = new short[CODE_SPACE];
+            int index = 0;
+            for (int code : currencyCodes) {
+                indexByCode[code] = (short) ++index;
+            }
+            return new Matrix(n, indexByCode, new double[0], new int[0], new int[0], new double[0]);
+        }
+
+        int indexOf(String currency) {
+            int code = ExchangeRateIndex.currencyCode(currency);
+            return code < 0 ? -1 : indexOfCode(code);
+        }
+
+        int indexOfCode(int code) {
+            return indexByCode[code] - 1;
+        }
+
+        // Full rebuild: BFS from every currency over the edge graph
+        Matrix withAllPaths(double[] edges) {
+            int n = size;
+            int[] hops = new int[n * n];
+            int[] next = new int[n * n];
+            Arrays.fill(hops, UNREACHABLE);
+            Arrays.fill(next, -1);
+
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int source = 0; source < n; source++) {
+                hops[source * n + source] = 0;
+                next[source * n + source] = source;
+                queue.add(source);
+
+                while (!queue.isEmpty()) {
+                    int node = queue.poll();
+                    for (int neighbour = 0; neighbour < n; neighbour++) {
+                        if (Double.isNaN(edges[node * n + neighbour]) || hops[source * n + neighbour] != UNREACHABLE) {
+                            continue;
+                        }
+                        hops[source * n + neighbour] = hops[source * n + node] + 1;
+                        next[source * n + neighbour] = node == source ? neighbour : next[source * n + node];
+                        queue.add(neighbour);
+                    }
+                }
+            }
+            return new Matrix(n, indexByCode, edges, hops, next, computeRates(n, edges, hops, next));
+        }
+
+        // New edge between known currencies: relax every path through u->v and v->u
+        Matrix withEdgeAdded(int u, int v, double[] edges) {
+            int n = size;
+            int[] hops = this.hops.clone();
+            int[] next = this.next.clone();
+            relax(n, hops, next, u, v);
+            relax(n, hops, next, v, u);
+            return new Matrix(n, indexByCode, edges, hops, next, computeRates(n, edges, hops, next));
+        }
+
+        // Same paths, new edge values
+        Matrix withRates(double[] edges) {
+            return new Matrix(size, indexByCode, edges, hops, next, computeRates(size, edges, hops, next));
+        }
+
+        private static void relax(int n, int[] hops, int[] next, int u, int v) {
+            for (int i = 0; i < n; i++) {
+                int toU = hops[i * n + u];
+                if (toU == UNREACHABLE) {
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    int fromV = hops[v * n + j];
+                    if (fromV != UNREACHABLE && toU + 1 + fromV < hops[i * n + j]) {
+                        hops[i * n + j] = toU + 1 + fromV;
+                        next[i * n + j] = i == u ? v : next[i * n + u];
+                    }
+                }
+            }
+        }
+
+        /**
+         * rate(i, j) = edge(i, next) * rate(next, j). The tail always has one hop less,
+         * so filling pairs in order of increasing hop count needs one pass per hop level.
+         */
+        private static double[] computeRates(int n, double[] edges, int[] hops, int[] next) {
+            double[] rates = new double[n * n];
+            Arrays.fill(rates, Double.NaN);
+
+            int maxHops = 0;
+            for (int h : hops) {
+                if (h != UNREACHABLE) {
+                    maxHops = Math.max(maxHops, h);
+                }
+            }
+
+            for (int level = 0; level <= maxHops; level++) {
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        int cell = i * n + j;
+                        if (hops[cell] != level) {
+                            continue;
+                        }
+                        if (level == 0) {
+                            rates[cell] = 1.0;
+                        } else {
+                            int via = next[cell];
+                            rates[cell] = edges[i * n + via] * rates[via * n + j];
+                        }
+                    }
+                }
+            }
+            return rates;
+        }
+    }
+}
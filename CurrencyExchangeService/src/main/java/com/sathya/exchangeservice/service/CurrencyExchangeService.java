@@ -1,53 +1,202 @@
 package com.sathya.exchangeservice.service;
 
 import com.sathya.exchangeservice.model.CurrencyExchange;
+import com.sathya.exchangeservice.model.RateChangeEvent;
 import com.sathya.exchangeservice.repository.CurrencyExchangeRepository;
+import com.sathya.exchangeservice.service.ExchangeRateIndex.IndexedRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CurrencyExchangeService {
     
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyExchangeService.class);
+    
     @Autowired
     private CurrencyExchangeRepository repository;
     
+    @Autowired
+    private ExchangeRateIndex rateIndex;
+    
+    @Autowired
+    private CrossRateEngine crossRates;
+    
+    @Autowired
+    private RateChangePublisher rateChangePublisher;
+    
+    // Derived rates are products/inverses of DECIMAL rates; keep them to 10 significant digits
+    private static final MathContext CROSS_RATE_PRECISION = new MathContext(10);
+    
+    /**
+     * Load all rates into the in-memory index once data.sql has run.
+     * Until then lookups fall back to the repository.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRateIndex() {
+        List<CurrencyExchange> rates = repository.findAll();
+        rateIndex.load(rates);
+        crossRates.load(rates);
+        logger.info("Loaded {} exchange rates into the rate index ({} currencies)", rateIndex.size(), crossRates.currencyCount());
+    }
+    
     public CurrencyExchange getExchangeRate(String from, String to) {
-        CurrencyExchange exchangeValue = repository.findByFromAndTo(from, to);
+        CurrencyExchange exchangeValue = findExchangeRate(from, to);
+        if (exchangeValue == null) {
+            exchangeValue = findCrossRate(from, to);
+        }
         if (exchangeValue == null) {
             throw new RuntimeException("Exchange rate not found for " + from + " to " + to);
         }
         return exchangeValue;
     }
     
+    /**
+     * Rates for many pairs in one pass over the index (or one query before it is loaded).
+     * Results keep the request order; pairs with no stored or derived rate are left out.
+     */
+    public List<CurrencyExchange> getExchangeRates(List<CurrencyExchange> pairs) {
+        List<CurrencyExchange> results = new ArrayList<>(pairs.size());
+        
+        if (!rateIndex.isLoaded()) {
+            Map<String, CurrencyExchange> stored = repository.findAll().stream()
+                    .collect(Collectors.toMap(rate -> rate.getFrom() + "-" + rate.getTo(), Function.identity(), (a, b) -> a));
+            for (CurrencyExchange pair : pairs) {
+                CurrencyExchange rate = stored.get(pair.getFrom() + "-" + pair.getTo());
+                if (rate != null) {
+                    results.add(rate);
+                }
+            }
+            return results;
+        }
+        
+        for (CurrencyExchange pair : pairs) {
+            CurrencyExchange rate = findExchangeRate(pair.getFrom(), pair.getTo());
+            if (rate == null) {
+                rate = findCrossRate(pair.getFrom(), pair.getTo());
+            }
+            if (rate != null) {
+                results.add(rate);
+            }
+        }
+        return results;
+    }
+    
+    // Served from the index in steady state; the repository is only used before the index is loaded
+    private CurrencyExchange findExchangeRate(String from, String to) {
+        if (!rateIndex.isLoaded()) {
+            return repository.findByFromAndTo(from, to);
+        }
+        IndexedRate rate = rateIndex.get(from, to);
+        return rate != null ? rate.toCurrencyExchange() : null;
+    }
+    
+    // Inverse or triangulated rate for a pair that is not stored; it has no id of its own
+    private CurrencyExchange findCrossRate(String from, String to) {
+        if (!rateIndex.isLoaded()) {
+            return null;
+        }
+        double rate = crossRates.getRate(from, to);
+        if (Double.isNaN(rate) || from.equals(to)) {
+            return null;
+        }
+        return new CurrencyExchange(null, from, to, new BigDecimal(rate, CROSS_RATE_PRECISION));
+    }
+    
     public List<CurrencyExchange> getAllExchangeRates() {
         return repository.findAll();
     }
     
+    // Writes run in one transaction with their rate change event (see RateChangePublisher);
+    // the index and cross rates only change once that transaction has committed
+    @Transactional
     public CurrencyExchange createExchangeRate(CurrencyExchange exchange) {
         // Check if already exists
-        CurrencyExchange existing = repository.findByFromAndTo(exchange.getFrom(), exchange.getTo());
+        CurrencyExchange existing = findExchangeRate(exchange.getFrom(), exchange.getTo());
         if (existing != null) {
             throw new RuntimeException("Exchange rate already exists for " + exchange.getFrom() + " to " + exchange.getTo());
         }
-        return repository.save(exchange);
+        CurrencyExchange saved = repository.save(exchange);
+        CurrencyExchange committed = copyOf(saved);
+        afterCommit(() -> {
+            rateIndex.put(committed);
+            crossRates.put(committed);
+        });
+        rateChangePublisher.publish(RateChangeEvent.Type.CREATED, saved);
+        return saved;
     }
     
+    @Transactional
     public CurrencyExchange updateExchangeRate(Long id, CurrencyExchange exchange) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Exchange rate not found with id: " + id);
-        }
+        CurrencyExchange previous = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Exchange rate not found with id: " + id));
+        
+        // Read the old pair before saving: with open-in-view, save() merges into this same managed instance
+        String previousFrom = previous.getFrom();
+        String previousTo = previous.getTo();
+        
         exchange.setId(id);
-        return repository.save(exchange);
+        CurrencyExchange saved = repository.save(exchange);
+        
+        // The update may have changed the pair itself
+        boolean pairChanged = !previousFrom.equals(saved.getFrom()) || !previousTo.equals(saved.getTo());
+        CurrencyExchange committed = copyOf(saved);
+        afterCommit(() -> {
+            rateIndex.replace(previousFrom, previousTo, committed);
+            if (pairChanged) {
+                crossRates.remove(previousFrom, previousTo);
+            }
+            crossRates.put(committed);
+        });
+        if (pairChanged) {
+            rateChangePublisher.publish(RateChangeEvent.Type.DELETED, new CurrencyExchange(id, previousFrom, previousTo, null));
+        }
+        rateChangePublisher.publish(RateChangeEvent.Type.UPDATED, saved);
+        return saved;
     }
     
+    @Transactional
     public void deleteExchangeRate(Long id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Exchange rate not found with id: " + id);
-        }
+        CurrencyExchange existing = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Exchange rate not found with id: " + id));
         repository.deleteById(id);
+        String from = existing.getFrom();
+        String to = existing.getTo();
+        afterCommit(() -> {
+            rateIndex.remove(from, to);
+            crossRates.remove(from, to);
+        });
+        rateChangePublisher.publish(RateChangeEvent.Type.DELETED, existing);
+    }
+    
+    // A rolled-back write must not leave its rate in the index or the cross-rate matrix
+    private static void afterCommit(Runnable change) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+    
+    // Detached from the persistence context, so later changes to the entity cannot reach the index
+    private static CurrencyExchange copyOf(CurrencyExchange exchange) {
+        return new CurrencyExchange(exchange.getId(), exchange.getFrom(), exchange.getTo(), exchange.getConversionMultiple());
     }
     
     public Optional<CurrencyExchange> getExchangeRateById(Long id) {
@@ -55,6 +204,6 @@ public class CurrencyExchangeService {
     }
     
     public boolean exchangeRateExists(String from, String to) {
-        return repository.findByFromAndTo(from, to) != null;
+        return findExchangeRate(from, to) != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package com.sathya.exchangeservice.service;
+
+import com.sathya.exchangeservice.model.CurrencyExchange;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process index of exchange rates keyed by currency pair.
+ *
+ * Each ISO code is packed into 15 bits (5 bits per letter) and a pair into a single
+ * int, so lookups need no string hashing or boxing. Readers use an immutable
+ * open-addressing snapshot through a volatile reference and never lock; writers
+ * (rare, admin-only) build a new snapshot under a lock and publish it.
+ */
+@Component
+public class ExchangeRateIndex {
+
+    private static final int NO_KEY = 0;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded;
+
+    // Serializes writers; readers use the volatile snapshot without it
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Returns the indexed rate for the pair, or null if there is none
+    public IndexedRate get(String from, String to) {
+        int key = pairKey(from, to);
+        return key == NO_KEY ? null : snapshot.get(key);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void load(Collection<CurrencyExchange> exchanges) {
+        writeLock.lock();
+        try {
+            List<IndexedRate> rates = new ArrayList<>(exchanges.size());
+            for (CurrencyExchange exchange : exchanges) {
+                IndexedRate rate = toIndexedRate(exchange);
+                if (rate != null) {
+                    rates.add(rate);
+                }
+            }
+            snapshot = Snapshot.of(rates);
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void put(CurrencyExchange exchange) {
+        replace(exchange.getFrom(), exchange.getTo(), exchange);
+    }
+
+    // Swaps the entry for the previous pair for the updated rate in one snapshot, so readers never miss it
+    public void replace(String previousFrom, String previousTo, CurrencyExchange exchange) {
+        writeLock.lock();
+        try {
+            int previousKey = pairKey(previousFrom, previousTo);
+            IndexedRate rate = toIndexedRate(exchange);
+            List<IndexedRate> rates = snapshot.values();
+            boolean changed = rates.removeIf(existing -> existing.key == previousKey
+                    || (rate != null && existing.key == rate.key));
+            if (rate != null) {
+                rates.add(rate);
+            }
+            if (changed || rate != null) {
+                snapshot = Snapshot.of(rates);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(String from, String to) {
+        writeLock.lock();
+        try {
+            int key = pairKey(from, to);
+            List<IndexedRate> rates = snapshot.values();
+            if (rates.removeIf(existing -> existing.key == key)) {
+                snapshot = Snapshot.of(rates);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    private static IndexedRate toIndexedRate(CurrencyExchange exchange) {
+        int key = pairKey(exchange.getFrom(), exchange.getTo());
+        if (key == NO_KEY) {
+            return null;
+        }
+        return new IndexedRate(key, exchange.getId(), exchange.getFrom(), exchange.getTo(),
+                               exchange.getConversionMultiple());
+    }
+
+    // Packs a pair of ISO codes into one int, or NO_KEY if either is not three letters A-Z
+    static int pairKey(String from, String to) {
+        int fromCode = currencyCode(from);
+        int toCode = currencyCode(to);
+        if (fromCode < 0 || toCode < 0) {
+            return NO_KEY;
+        }
+        return (fromCode << 15) | toCode;
+    }
+
+    static int currencyCode(String currency) {
+        if (currency == null || currency.length() != 3) {
+            return -1;
+        }
+        int code = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = currency.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+            code = (code << 5) | (c - 'A' + 1);
+        }
+        return code;
+    }
+
+    public static final class IndexedRate {
+        private final int key;
+        private final Long id;
+        private final String from;
+        private final String to;
+        private final BigDecimal conversionMultiple;
+
+        private IndexedRate(int key, Long id, String from, String to, BigDecimal conversionMultiple) {
+            this.key = key;
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.conversionMultiple = conversionMultiple;
+        }
+
+        public Long getId() { return id; }
+        public String getFrom() { return from; }
+        public String getTo() { return to; }
+        public BigDecimal getConversionMultiple() { return conversionMultiple; }
+
+        // Fresh entity per call; callers (e.g. the controller setting environment) may mutate it
+        public CurrencyExchange toCurrencyExchange() {
+            return new CurrencyExchange(id, from, to, conversionMultiple);
+        }
+    }
+
+    /**
+     * Immutable linear-probing table. Capacity is a power of two at least twice the
+     * entry count, so probes stay short and there is always an empty slot.
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = of(List.of());
+
+        private final int[] keys;
+        private final IndexedRate[] values;
+        private final int mask;
+        private final int size;
+
+        private Snapshot(int capacity, int size) {
+            this.keys = new int[capacity];
+            this.values = new IndexedRate[capacity];
+            this.mask = capacity - 1;
+            this.size = size;
+        }
+
+        static Snapshot of(List<IndexedRate> rates) {
+            int capacity = Integer.highestOneBit(Math.max(2, rates.size() * 2) - 1) << 1;
+            Snapshot table = new Snapshot(capacity, rates.size());
+            for (IndexedRate rate : rates) {
+                int slot = table.slot(rate.key);
+                while (table.keys[slot] != NO_KEY) {
+                    slot = (slot + 1) & table.mask;
+                }
+                table.keys[slot] = rate.key;
+                table.values[slot] = rate;
+            }
+            return table;
+        }
+
+        IndexedRate get(int key) {
+            int slot = slot(key);
+            while (true) {
+                int candidate = keys[slot];
+                if (candidate == key) {
+                    return values[slot];
+                }
+                if (candidate == NO_KEY) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        List<IndexedRate> values() {
+            List<IndexedRate> result = new ArrayList<>(size + 1);
+            for (IndexedRate value : values) {
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            return result;
+        }
+
+        private int slot(int key) {
+            return (key * 0x9E3779B9 >>> 16) & mask;
+        }
+    }
+}
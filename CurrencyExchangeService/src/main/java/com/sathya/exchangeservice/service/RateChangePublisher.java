@@ -0,0 +1,148 @@
+package com.sathya.exchangeservice.service;
+
+import com.sathya.exchangeservice.config.RabbitMQConfig;
+import com.sathya.exchangeservice.model.CurrencyExchange;
+import com.sathya.exchangeservice.model.RateChangeEvent;
+import com.sathya.exchangeservice.model.RateChangeOutboxEntry;
+import com.sathya.exchangeservice.repository.RateChangeOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes rate changes to the currency-exchange topic exchange through an outbox.
+ *
+ * publish() stores the event in rate_change_outbox within the caller's transaction, so
+ * it is kept exactly when the rate change is. After the commit a single relay thread
+ * sends pending events in order, waits for each broker publisher confirm and only then
+ * deletes the row. On nack, timeout or send failure it stops and tries again after
+ * retry-interval (same eventId and version); consumers discard duplicates by version.
+ * Admin requests never wait for the broker.
+ *
+ * Delivery is not guaranteed end to end. The outbox lives in the service's database,
+ * which is in-memory H2 by default, so rows still pending when the process dies are
+ * lost with it. Conversion instances only receive changes while connected (and clear
+ * their caches when they reconnect). Cached rates are therefore only trusted up to the
+ * conversion service's rate-cache TTL.
+ */
+@Component
+public class RateChangePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateChangePublisher.class);
+
+    private final RateChangeOutboxRepository outbox;
+    private final RabbitTemplate rabbitTemplate;
+    private final Duration confirmTimeout;
+    private final Duration retryInterval;
+    private final ScheduledExecutorService relay;
+
+    // Microseconds since the epoch, bumped on collisions: increases across restarts and writes
+    private final AtomicLong lastVersion = new AtomicLong();
+
+    public RateChangePublisher(RateChangeOutboxRepository outbox,
+                               RabbitTemplate rabbitTemplate,
+                               @Value("${rate-events.confirm-timeout:5s}") Duration confirmTimeout,
+                               @Value("${rate-events.retry-interval:5s}") Duration retryInterval) {
+        this.outbox = outbox;
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTimeout = confirmTimeout;
+        this.retryInterval = retryInterval;
+        this.relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-change-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(RateChangeEvent.Type type, CurrencyExchange rate) {
+        RateChangeEvent event = new RateChangeEvent(
+            UUID.randomUUID().toString(),
+            type,
+            rate.getId(),
+            rate.getFrom(),
+            rate.getTo(),
+            type == RateChangeEvent.Type.DELETED ? null : rate.getConversionMultiple(),
+            nextVersion(),
+            System.currentTimeMillis()
+        );
+        outbox.save(new RateChangeOutboxEntry(event));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    // Also picks up whatever a previous run left in the outbox
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRelay() {
+        relay.scheduleWithFixedDelay(this::relayPending, 0, retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void wakeUp() {
+        try {
+            relay.execute(this::relayPending);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the row is sent after the next start
+        }
+    }
+
+    // Runs on the relay thread only, so events leave in outbox order
+    void relayPending() {
+        try {
+            List<RateChangeOutboxEntry> pending;
+            while (!(pending = outbox.findTop100ByOrderByIdAsc()).isEmpty()) {
+                for (RateChangeOutboxEntry entry : pending) {
+                    RateChangeEvent event = entry.toEvent();
+                    if (!send(event)) {
+                        logger.warn("⚠️ Rate change {} not confirmed by broker, retrying in {}", event.getEventId(), retryInterval);
+                        return;
+                    }
+                    outbox.deleteById(entry.getId());
+                    logger.info("📤 Rate change published: {}", event);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to publish rate changes, retrying in {}: {}", retryInterval, e.getMessage());
+        }
+    }
+
+    private boolean send(RateChangeEvent event) throws Exception {
+        CorrelationData correlation = new CorrelationData(event.getEventId());
+        rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.RATE_CHANGE_ROUTING_KEY, event, correlation);
+        CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        return confirm.isAck();
+    }
+
+    private long nextVersion() {
+        long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        return lastVersion.updateAndGet(previous -> Math.max(previous + 1, now));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relay.shutdownNow();
+    }
+}
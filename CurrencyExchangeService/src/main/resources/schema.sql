@@ -4,4 +4,16 @@ CREATE TABLE currency_exchange (
     currency_to VARCHAR(3) NOT NULL,
     conversion_multiple DECIMAL(10,2) NOT NULL,
     environment VARCHAR(50)
-);
\ No newline at end of file
+);
+
+CREATE TABLE rate_change_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_id VARCHAR(36) NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    rate_id BIGINT,
+    currency_from VARCHAR(3) NOT NULL,
+    currency_to VARCHAR(3) NOT NULL,
+    conversion_multiple DECIMAL(19,10),
+    version BIGINT NOT NULL,
+    timestamp BIGINT NOT NULL
+);
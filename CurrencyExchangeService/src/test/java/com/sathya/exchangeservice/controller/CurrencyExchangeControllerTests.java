@@ -0,0 +1,92 @@
+package com.sathya.exchangeservice.controller;
+
+import com.sathya.exchangeservice.model.CurrencyExchange;
+import com.sathya.exchangeservice.repository.CurrencyExchangeRepository;
+import com.sathya.exchangeservice.service.CrossRateEngine;
+import com.sathya.exchangeservice.service.CurrencyExchangeService;
+import com.sathya.exchangeservice.service.ExchangeRateIndex;
+import com.sathya.exchangeservice.service.RateChangePublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CurrencyExchangeControllerTests {
+
+	private final CurrencyExchangeRepository repository = mock(CurrencyExchangeRepository.class);
+	private final CurrencyExchangeService service = new CurrencyExchangeService();
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "repository", repository);
+		ReflectionTestUtils.setField(service, "rateIndex", new ExchangeRateIndex());
+		ReflectionTestUtils.setField(service, "crossRates", new CrossRateEngine());
+		ReflectionTestUtils.setField(service, "rateChangePublisher", mock(RateChangePublisher.class));
+		given(repository.findAll()).willReturn(List.of(rate(1L, "USD", "INR", "83.00"), rate(2L, "EUR", "INR", "88.00")));
+
+		CurrencyExchangeController controller = new CurrencyExchangeController();
+		ReflectionTestUtils.setField(controller, "currencyExchangeService", service);
+		ReflectionTestUtils.setField(controller, "environment", new MockEnvironment().withProperty("local.server.port", "8000"));
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void batchKeepsRequestOrderAndLeavesOutUnknownPairs() throws Exception {
+		service.loadRateIndex();
+
+		mockMvc.perform(get("/currency-exchange/from/USD/batch").param("to", "EUR,XYZ,INR"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				// USD->EUR is not stored: derived through INR, with no id of its own
+				.andExpect(jsonPath("$[0].to").value("EUR"))
+				.andExpect(jsonPath("$[0].id").doesNotExist())
+				.andExpect(jsonPath("$[0].conversionMultiple").value(0.9431818182))
+				.andExpect(jsonPath("$[1].to").value("INR"))
+				.andExpect(jsonPath("$[1].id").value(1))
+				.andExpect(jsonPath("$[1].environment").value("8000"));
+		verify(repository, never()).findByFromAndTo("USD", "INR");
+	}
+
+	@Test
+	void postedBatchAcceptsPairsFromDifferentSources() throws Exception {
+		service.loadRateIndex();
+
+		mockMvc.perform(post("/currency-exchange/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[{\"from\":\"EUR\",\"to\":\"INR\"},{\"from\":\"USD\",\"to\":\"INR\"}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].id").value(contains(2, 1)));
+	}
+
+	@Test
+	void batchReadsTheRepositoryOnceBeforeTheIndexIsLoaded() throws Exception {
+		mockMvc.perform(get("/currency-exchange/from/USD/batch").param("to", "INR,EUR"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].to").value("INR"));
+		verify(repository).findAll();
+		verify(repository, never()).findByFromAndTo("USD", "INR");
+	}
+
+	private static CurrencyExchange rate(Long id, String from, String to, String multiple) {
+		return new CurrencyExchange(id, from, to, new BigDecimal(multiple));
+	}
+}
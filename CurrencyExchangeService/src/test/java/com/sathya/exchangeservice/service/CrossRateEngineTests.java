@@ -0,0 +1,59 @@
+package com.sathya.exchangeservice.service;
+
+import com.sathya.exchangeservice.model.CurrencyExchange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossRateEngineTests {
+
+	private static final double DELTA = 1e-9;
+
+	private final CrossRateEngine engine = new CrossRateEngine();
+
+	@BeforeEach
+	void loadRates() {
+		engine.load(List.of(rate(1L, "USD", "INR", "83.00"), rate(2L, "EUR", "INR", "88.00")));
+	}
+
+	@Test
+	void derivesInverseAndTriangulatedRates() {
+		assertEquals(83.0, engine.getRate("USD", "INR"), DELTA);
+		assertEquals(1 / 83.0, engine.getRate("INR", "USD"), DELTA);
+		assertEquals(83.0 / 88.0, engine.getRate("USD", "EUR"), DELTA);
+		assertEquals(2, engine.getHops("USD", "EUR"));
+		assertTrue(Double.isNaN(engine.getRate("USD", "JPY")));
+	}
+
+	@Test
+	void updatesDerivedRatesWhenOneEdgeChanges() {
+		engine.put(rate(1L, "USD", "INR", "84.00"));
+		assertEquals(84.0 / 88.0, engine.getRate("USD", "EUR"), DELTA);
+
+		// A direct pair replaces the triangulated path
+		engine.put(rate(3L, "USD", "EUR", "0.90"));
+		assertEquals(1, engine.getHops("USD", "EUR"));
+		assertEquals(1 / 0.90, engine.getRate("EUR", "USD"), DELTA);
+
+		// A new currency is reachable through the existing graph
+		engine.put(rate(4L, "GBP", "EUR", "1.20"));
+		assertEquals(1.20 * 88.0, engine.getRate("GBP", "INR"), DELTA);
+		assertEquals(2, engine.getHops("GBP", "INR"));
+	}
+
+	@Test
+	void removingAnEdgeDisconnectsDependentPairs() {
+		engine.remove("EUR", "INR");
+		assertTrue(Double.isNaN(engine.getRate("USD", "EUR")));
+		assertEquals(-1, engine.getHops("USD", "EUR"));
+		assertEquals(83.0, engine.getRate("USD", "INR"), DELTA);
+	}
+
+	private static CurrencyExchange rate(Long id, String from, String to, String multiple) {
+		return new CurrencyExchange(id, from, to, new BigDecimal(multiple));
+	}
+}
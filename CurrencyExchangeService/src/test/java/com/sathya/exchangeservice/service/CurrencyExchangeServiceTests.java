@@ -0,0 +1,100 @@
+package com.sathya.exchangeservice.service;
+
+import com.sathya.exchangeservice.model.CurrencyExchange;
+import com.sathya.exchangeservice.repository.CurrencyExchangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Writes inside a simulated transaction: the index and cross rates only see them on commit.
+ */
+class CurrencyExchangeServiceTests {
+
+	private final CurrencyExchangeRepository repository = mock(CurrencyExchangeRepository.class);
+	private final ExchangeRateIndex rateIndex = new ExchangeRateIndex();
+	private final CrossRateEngine crossRates = new CrossRateEngine();
+	private final CurrencyExchangeService service = new CurrencyExchangeService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "repository", repository);
+		ReflectionTestUtils.setField(service, "rateIndex", rateIndex);
+		ReflectionTestUtils.setField(service, "crossRates", crossRates);
+		ReflectionTestUtils.setField(service, "rateChangePublisher", mock(RateChangePublisher.class));
+		given(repository.findAll()).willReturn(List.of(rate(1L, "USD", "INR", "83.00"), rate(2L, "EUR", "INR", "88.00")));
+		given(repository.save(any(CurrencyExchange.class))).willAnswer(invocation -> invocation.getArgument(0));
+		service.loadRateIndex();
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void appliesCreatedRatesOnlyAfterCommit() {
+		service.createExchangeRate(rate(3L, "GBP", "INR", "105.00"));
+		assertFalse(service.exchangeRateExists("GBP", "INR"));
+		assertTrue(Double.isNaN(crossRates.getRate("GBP", "USD")));
+
+		commit();
+		assertEquals(new BigDecimal("105.00"), service.getExchangeRate("GBP", "INR").getConversionMultiple());
+		assertEquals(105.0 / 83.0, crossRates.getRate("GBP", "USD"), 1e-9);
+	}
+
+	@Test
+	void leavesIndexUntouchedWhenTheTransactionRollsBack() {
+		given(repository.findById(1L)).willReturn(Optional.of(rate(1L, "USD", "INR", "83.00")));
+
+		service.updateExchangeRate(1L, rate(null, "USD", "INR", "90.00"));
+		service.deleteExchangeRate(1L);
+		rollback();
+
+		assertEquals(new BigDecimal("83.00"), service.getExchangeRate("USD", "INR").getConversionMultiple());
+		assertEquals(83.0 / 88.0, crossRates.getRate("USD", "EUR"), 1e-9);
+	}
+
+	@Test
+	void movesTheRateWhenAnUpdateChangesThePair() {
+		given(repository.findById(1L)).willReturn(Optional.of(rate(1L, "USD", "INR", "83.00")));
+
+		service.updateExchangeRate(1L, rate(null, "USD", "JPY", "150.00"));
+		commit();
+
+		assertFalse(service.exchangeRateExists("USD", "INR"));
+		assertEquals(new BigDecimal("150.00"), service.getExchangeRate("USD", "JPY").getConversionMultiple());
+		assertTrue(Double.isNaN(crossRates.getRate("USD", "INR")));
+	}
+
+	private static void commit() {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(TransactionSynchronization::afterCommit);
+	}
+
+	private static void rollback() {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+	}
+
+	private static CurrencyExchange rate(Long id, String from, String to, String multiple) {
+		return new CurrencyExchange(id, from, to, new BigDecimal(multiple));
+	}
+}
@@ -0,0 +1,112 @@
+package com.sathya.exchangeservice.service;
+
+import com.sathya.exchangeservice.model.CurrencyExchange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeRateIndexTests {
+
+	private final ExchangeRateIndex index = new ExchangeRateIndex();
+
+	@Test
+	void packsEachPairIntoADistinctKey() {
+		assertEquals((1 << 10) | (1 << 5) | 1, ExchangeRateIndex.currencyCode("AAA"));
+		assertEquals((26 << 10) | (26 << 5) | 26, ExchangeRateIndex.currencyCode("ZZZ"));
+		assertNotEquals(ExchangeRateIndex.pairKey("USD", "INR"), ExchangeRateIndex.pairKey("INR", "USD"));
+
+		// Anything but three letters A-Z has no key
+		assertEquals(0, ExchangeRateIndex.pairKey("usd", "INR"));
+		assertEquals(0, ExchangeRateIndex.pairKey("USD", "IN"));
+		assertEquals(0, ExchangeRateIndex.pairKey("USD", null));
+		assertEquals(0, ExchangeRateIndex.pairKey("US1", "INR"));
+
+		Set<Integer> keys = new HashSet<>();
+		for (String from : List.of("USD", "EUR", "GBP", "INR", "JPY")) {
+			for (String to : List.of("USD", "EUR", "GBP", "INR", "JPY")) {
+				assertTrue(keys.add(ExchangeRateIndex.pairKey(from, to)));
+			}
+		}
+	}
+
+	@Test
+	void findsEveryLoadedPairThroughCollidingProbes() {
+		List<CurrencyExchange> exchanges = new ArrayList<>();
+		long id = 1;
+		for (char a = 'A'; a <= 'Z'; a++) {
+			for (char b = 'A'; b <= 'Z'; b++) {
+				exchanges.add(rate(id++, "U" + a + b, "INR", id + ".5"));
+			}
+		}
+		index.load(exchanges);
+
+		assertTrue(index.isLoaded());
+		assertEquals(exchanges.size(), index.size());
+		for (CurrencyExchange exchange : exchanges) {
+			ExchangeRateIndex.IndexedRate rate = index.get(exchange.getFrom(), exchange.getTo());
+			assertNotNull(rate, exchange.getFrom());
+			assertEquals(exchange.getId(), rate.getId());
+			assertEquals(exchange.getConversionMultiple(), rate.getConversionMultiple());
+		}
+		assertNull(index.get("INR", "UAA"));
+		assertNull(index.get("usd", "INR"));
+	}
+
+	@Test
+	void skipsRatesWithoutAValidPair() {
+		index.load(List.of(rate(1L, "USD", "INR", "83"), rate(2L, "usd", "EUR", "0.92")));
+
+		assertEquals(1, index.size());
+		assertNull(index.get("USD", "EUR"));
+	}
+
+	@Test
+	void replaceMovesARateToItsNewPairInOneStep() {
+		index.load(List.of(rate(1L, "USD", "INR", "83"), rate(2L, "EUR", "INR", "90")));
+
+		index.replace("USD", "INR", rate(1L, "USD", "JPY", "150"));
+
+		assertNull(index.get("USD", "INR"));
+		assertEquals(new BigDecimal("150"), index.get("USD", "JPY").getConversionMultiple());
+		assertEquals(2, index.size());
+
+		// Same pair: the entry is updated, not duplicated
+		index.put(rate(1L, "USD", "JPY", "151"));
+		assertEquals(new BigDecimal("151"), index.get("USD", "JPY").getConversionMultiple());
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void removeDropsOnlyThatPair() {
+		index.load(List.of(rate(1L, "USD", "INR", "83"), rate(2L, "EUR", "INR", "90")));
+
+		index.remove("USD", "INR");
+		index.remove("GBP", "INR");
+
+		assertNull(index.get("USD", "INR"));
+		assertNotNull(index.get("EUR", "INR"));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void handsOutAFreshEntityPerCall() {
+		index.put(rate(1L, "USD", "INR", "83"));
+		ExchangeRateIndex.IndexedRate rate = index.get("USD", "INR");
+
+		CurrencyExchange first = rate.toCurrencyExchange();
+		first.setEnvironment("8000");
+
+		assertNotSame(first, rate.toCurrencyExchange());
+		assertNull(rate.toCurrencyExchange().getEnvironment());
+	}
+
+	private static CurrencyExchange rate(Long id, String from, String to, String multiple) {
+		return new CurrencyExchange(id, from, to, new BigDecimal(multiple));
+	}
+}
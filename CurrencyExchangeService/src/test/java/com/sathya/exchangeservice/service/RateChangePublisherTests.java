@@ -0,0 +1,88 @@
+package com.sathya.exchangeservice.service;
+
+import com.sathya.exchangeservice.model.RateChangeEvent;
+import com.sathya.exchangeservice.model.RateChangeOutboxEntry;
+import com.sathya.exchangeservice.repository.RateChangeOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateChangePublisherTests {
+
+	private final List<RateChangeOutboxEntry> rows = new ArrayList<>();
+	private final List<String> sent = new ArrayList<>();
+	private Set<String> nacked = Set.of();
+
+	private final RateChangeOutboxRepository outbox = mock(RateChangeOutboxRepository.class);
+	private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+	private final RateChangePublisher publisher = new RateChangePublisher(outbox, rabbitTemplate,
+			Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+	RateChangePublisherTests() {
+		when(outbox.findTop100ByOrderByIdAsc()).thenAnswer(invocation -> new ArrayList<>(rows));
+		doAnswer(invocation -> rows.removeIf(row -> row.getId().equals(invocation.getArgument(0))))
+				.when(outbox).deleteById(anyLong());
+		doAnswer(invocation -> {
+			RateChangeEvent event = invocation.getArgument(2);
+			CorrelationData correlation = invocation.getArgument(3);
+			sent.add(event.getFrom());
+			correlation.getFuture().complete(new CorrelationData.Confirm(!nacked.contains(event.getFrom()), null));
+			return null;
+		}).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+	}
+
+	@AfterEach
+	void shutdown() {
+		publisher.shutdown();
+	}
+
+	@Test
+	void relaysPendingChangesInOrderAndDeletesThemOnceConfirmed() {
+		row(1L, "USD");
+		row(2L, "EUR");
+
+		publisher.relayPending();
+
+		assertEquals(List.of("USD", "EUR"), sent);
+		assertTrue(rows.isEmpty());
+	}
+
+	@Test
+	void keepsUnconfirmedChangesAndEverythingAfterThemForTheNextAttempt() {
+		row(1L, "USD");
+		row(2L, "EUR");
+		row(3L, "GBP");
+		nacked = Set.of("EUR");
+
+		publisher.relayPending();
+		assertEquals(List.of("USD", "EUR"), sent);
+		assertEquals(2, rows.size());
+
+		nacked = Set.of();
+		publisher.relayPending();
+		assertEquals(List.of("USD", "EUR", "EUR", "GBP"), sent);
+		assertTrue(rows.isEmpty());
+	}
+
+	private void row(long id, String from) {
+		RateChangeOutboxEntry entry = new RateChangeOutboxEntry(new RateChangeEvent("event-" + id,
+				RateChangeEvent.Type.UPDATED, id, from, "INR", new BigDecimal("83.00"), id, 0));
+		entry.setId(id);
+		rows.add(entry);
+	}
+}
@@ -0,0 +1,124 @@
+package com.sathya.discovery.eureka;
+
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Applications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Last-known Eureka registry on local disk, so a restarted service can reach the others
+ * before its first registry fetch succeeds.
+ *
+ * After every registry fetch that changed the registry (HeartbeatEvent), the registry is
+ * written to registry-snapshot.file, atomically through a temp file. When the fetch at
+ * boot fails, the Eureka client falls back to SnapshotBackupRegistry
+ * (eureka.client.backup-registry-impl), which serves this file if it is younger than
+ * registry-snapshot.max-age (both resolved by RegistrySnapshotEnvironmentPostProcessor
+ * before any bean is created). From then on the client's usual fetches take over: deltas
+ * are applied on top of the snapshot and the first hash mismatch triggers a full fetch.
+ *
+ * Not a @Component: each service imports it from its own configuration.
+ */
+public class RegistrySnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrySnapshot.class);
+    private static final CodecWrapper CODEC = CodecWrappers.getCodec(CodecWrappers.JacksonJson.class);
+
+    static final Path DEFAULT_FILE = Path.of("./data/eureka-registry.json");
+    static final Duration DEFAULT_MAX_AGE = Duration.ofHours(24);
+
+    // Eureka creates SnapshotBackupRegistry by class name, so it reads its settings from here
+    private static volatile Path file = DEFAULT_FILE;
+    private static volatile Duration maxAge = DEFAULT_MAX_AGE;
+
+    private final ObjectProvider<EurekaClient> eurekaClient;
+    private final ReentrantLock lock = new ReentrantLock();
+    private String writtenHashCode;
+
+    public RegistrySnapshot(ObjectProvider<EurekaClient> eurekaClient) {
+        this.eurekaClient = eurekaClient;
+    }
+
+    static void configure(Path file, Duration maxAge) {
+        RegistrySnapshot.file = file;
+        RegistrySnapshot.maxAge = maxAge;
+    }
+
+    @EventListener
+    public void onRegistryFetched(HeartbeatEvent event) {
+        lock.lock();
+        try {
+            write();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() {
+        EurekaClient client = eurekaClient.getIfAvailable();
+        Applications applications = client == null ? null : client.getApplications();
+        // An empty registry (Eureka itself just restarted) would only overwrite a useful snapshot
+        if (applications == null || applications.size() == 0
+                || Objects.equals(applications.getAppsHashCode(), writtenHashCode)) {
+            return;
+        }
+        Path snapshot = file;
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            if (snapshot.getParent() != null) {
+                Files.createDirectories(snapshot.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                CODEC.encode(applications, out);
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenHashCode = applications.getAppsHashCode();
+            logger.debug("📸 Registry snapshot written: {} instances ({})", applications.size(), writtenHashCode);
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not write registry snapshot {}: {}", snapshot, e.toString());
+        }
+    }
+
+    /**
+     * The snapshot, or null when there is none, it is older than max-age or unreadable.
+     */
+    static Applications load() {
+        Path snapshot = file;
+        try {
+            if (!Files.isRegularFile(snapshot)) {
+                logger.info("📸 No registry snapshot at {}", snapshot);
+                return null;
+            }
+            Duration age = Duration.between(Files.getLastModifiedTime(snapshot).toInstant(), Instant.now());
+            if (age.compareTo(maxAge) > 0) {
+                logger.warn("⚠️ Registry snapshot {} is {} old, not using it", snapshot, age);
+                return null;
+            }
+            try (InputStream in = Files.newInputStream(snapshot)) {
+                Applications applications = CODEC.decode(in, Applications.class);
+                logger.info("📸 Eureka unreachable at boot, serving {} instances from registry snapshot ({} old)",
+                            applications.size(), age);
+                return applications;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("⚠️ Could not read registry snapshot {}: {}", snapshot, e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.sathya.discovery.eureka;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Resolves registry-snapshot.file and registry-snapshot.max-age as soon as the environment
+ * is ready, before any bean exists: Eureka creates SnapshotBackupRegistry by class name
+ * while the DiscoveryClient is constructed, with no ordering against RegistrySnapshot.
+ *
+ * Registered in META-INF/spring.factories; runs last so application.properties is loaded.
+ */
+public class RegistrySnapshotEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Binder binder = Binder.get(environment);
+        RegistrySnapshot.configure(
+                binder.bind("registry-snapshot.file", Path.class).orElse(RegistrySnapshot.DEFAULT_FILE),
+                binder.bind("registry-snapshot.max-age", Duration.class).orElse(RegistrySnapshot.DEFAULT_MAX_AGE));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
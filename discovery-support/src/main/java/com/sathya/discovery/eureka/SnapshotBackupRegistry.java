@@ -0,0 +1,21 @@
+package com.sathya.discovery.eureka;
+
+import com.netflix.discovery.BackupRegistry;
+import com.netflix.discovery.shared.Applications;
+
+/**
+ * Eureka client fallback for a failed registry fetch at boot: the last registry
+ * RegistrySnapshot saved. Set as eureka.client.backup-registry-impl.
+ */
+public class SnapshotBackupRegistry implements BackupRegistry {
+
+    @Override
+    public Applications fetchRegistry() {
+        return RegistrySnapshot.load();
+    }
+
+    @Override
+    public Applications fetchRegistry(String[] includeRemoteRegions) {
+        return RegistrySnapshot.load();
+    }
+}
@@ -0,0 +1,35 @@
+package com.sathya.discovery.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Per-service load balancer configuration, applied to every client through
+ * LoadBalancerConfig. Deliberately not a @Configuration: it is loaded into each
+ * service's own load balancer context, not the application context.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyAwareLoadBalancerConfiguration.class);
+
+    // Declared as the concrete type so it is also found as the service's LoadBalancerLifecycle
+    @Bean
+    public PeakEwmaLoadBalancer reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                   LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = LoadBalancerClientFactory.getName(environment);
+        // Parsed by hand: this context's environment has no Duration converter
+        Duration decayTime = DurationStyle.detectAndParse(
+                environment.getProperty("load-balancer.latency-aware.decay-time", "10s"));
+        logger.info("⚖️ Latency-aware load balancing for {} (decay {})", serviceId, decayTime);
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, decayTime);
+    }
+}
@@ -0,0 +1,197 @@
+package com.sathya.discovery.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Power-of-two-choices load balancer weighted by peak-EWMA latency and in-flight requests.
+ *
+ * For every request two distinct instances are picked at random and the one with the lower
+ * cost, latency * (in-flight + 1), gets it. Latency is an exponentially weighted moving
+ * average over decay-time that jumps straight to any slower response, so an instance
+ * that slows down loses traffic at once. While an instance gets no traffic its estimate
+ * decays towards zero, so it is tried again and wins traffic back once it is fast.
+ * Instances without a measurement yet are costed at the other candidate's latency.
+ *
+ * The balancer is also the LoadBalancerLifecycle of its service: the gateway's lb:// routes,
+ * and the Feign clients and load-balanced RestTemplate and WebClient of the services, report
+ * each request's start and completion to it.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeakEwmaLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final String serviceId;
+    private final long decayNanos;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers, String serviceId, Duration decayTime) {
+        this.suppliers = suppliers;
+        this.serviceId = serviceId;
+        this.decayNanos = Math.max(1, decayTime.toNanos());
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            logger.warn("⚠️ No instances available for {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (stats.size() > instances.size()) {
+            // Forget instances that left the registry
+            Set<String> current = instances.stream().map(PeakEwmaLoadBalancer::key).collect(Collectors.toSet());
+            stats.keySet().retainAll(current);
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        InstanceStats statsA = stats(a);
+        InstanceStats statsB = stats(b);
+
+        double latencyA = statsA.latencyNanos(decayNanos);
+        double latencyB = statsB.latencyNanos(decayNanos);
+        if (latencyA == 0) {
+            latencyA = latencyB;
+        } else if (latencyB == 0) {
+            latencyB = latencyA;
+        }
+        // +1 keeps in-flight counts deciding while neither instance has been measured
+        double costA = (latencyA + 1) * (statsA.inFlight.get() + 1);
+        double costB = (latencyB + 1) * (statsB.inFlight.get() + 1);
+        return new DefaultResponse(costA <= costB ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() == 0) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        stats(lbResponse.getServer()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats instanceStats = stats(lbResponse.getServer());
+        instanceStats.inFlight.updateAndGet(inFlight -> Math.max(0, inFlight - 1));
+        // Failed requests count too: a timeout is the slowest answer there is
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (completionContext.status() != CompletionContext.Status.DISCARD && request != null
+                && request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() != 0) {
+            instanceStats.observe(System.nanoTime() - timed.getRequestStartTime(), decayNanos);
+        }
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    // For tests and diagnostics
+    double latencyNanos(ServiceInstance instance) {
+        return stats(instance).latencyNanos(decayNanos);
+    }
+
+    static class InstanceStats {
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        // Average and its timestamp are swapped in together, so readers never see one without the other
+        private final AtomicReference<Ewma> ewma = new AtomicReference<>(Ewma.NONE);
+
+        void observe(long rttNanos, long decayNanos) {
+            long now = System.nanoTime();
+            ewma.updateAndGet(previous -> previous.next(rttNanos, now, decayNanos));
+        }
+
+        // 0 until the first response
+        double latencyNanos(long decayNanos) {
+            return ewma.get().decayedAt(System.nanoTime(), decayNanos);
+        }
+    }
+
+    private static final class Ewma {
+
+        static final Ewma NONE = new Ewma(0, 0);
+
+        private final double nanos;
+        private final long observedAtNanos;
+
+        private Ewma(double nanos, long observedAtNanos) {
+            this.nanos = nanos;
+            this.observedAtNanos = observedAtNanos;
+        }
+
+        Ewma next(long rttNanos, long now, long decayNanos) {
+            if (rttNanos > nanos) {
+                return new Ewma(rttNanos, now);
+            }
+            double weight = Math.exp(-(double) (now - observedAtNanos) / decayNanos);
+            return new Ewma(nanos * weight + rttNanos * (1 - weight), now);
+        }
+
+        double decayedAt(long now, long decayNanos) {
+            if (nanos == 0) {
+                return 0;
+            }
+            return nanos * Math.exp(-(double) (now - observedAtNanos) / decayNanos);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.sathya.discovery.eureka;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegistrySnapshotTests {
+
+	@TempDir
+	Path dir;
+
+	private final EurekaClient eurekaClient = mock(EurekaClient.class);
+
+	@Test
+	void savesFetchedRegistriesAndServesTheLastOneAtBoot() {
+		Path file = dir.resolve("eureka-registry.json");
+		RegistrySnapshot snapshot = snapshot(file, Duration.ofHours(1));
+
+		// Eureka answered with nothing (e.g. it restarted too): nothing worth keeping
+		when(eurekaClient.getApplications()).thenReturn(new Applications());
+		snapshot.onRegistryFetched(new HeartbeatEvent(this, 1));
+		assertFalse(Files.exists(file));
+		assertNull(new SnapshotBackupRegistry().fetchRegistry());
+
+		when(eurekaClient.getApplications()).thenReturn(registry(8000, 8001));
+		snapshot.onRegistryFetched(new HeartbeatEvent(this, 2));
+
+		Applications restored = new SnapshotBackupRegistry().fetchRegistry();
+		assertEquals(2, restored.size());
+		assertEquals(8000, restored.getRegisteredApplications("CURRENCY-EXCHANGE-SERVICE")
+				.getByInstanceId("exchange-8000").getPort());
+		assertFalse(Files.exists(dir.resolve("eureka-registry.json.tmp")));
+	}
+
+	@Test
+	void doesNotServeASnapshotOlderThanMaxAge() throws Exception {
+		Path file = dir.resolve("eureka-registry.json");
+		RegistrySnapshot snapshot = snapshot(file, Duration.ofHours(1));
+		when(eurekaClient.getApplications()).thenReturn(registry(8000));
+		snapshot.onRegistryFetched(new HeartbeatEvent(this, 1));
+		assertNotNull(new SnapshotBackupRegistry().fetchRegistry());
+
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+		assertNull(new SnapshotBackupRegistry().fetchRegistry());
+	}
+
+	@Test
+	void resolvesSettingsFromTheEnvironment() {
+		Path file = dir.resolve("eureka-registry.json");
+		when(eurekaClient.getApplications()).thenReturn(registry(8000));
+		// Only the post-processor configures it: no RegistrySnapshot bean has been created yet
+		postProcess(new MockEnvironment()
+				.withProperty("registry-snapshot.file", file.toString())
+				.withProperty("registry-snapshot.max-age", "1h"));
+		new RegistrySnapshot(provider()).onRegistryFetched(new HeartbeatEvent(this, 1));
+		assertTrue(Files.exists(file));
+		assertNotNull(new SnapshotBackupRegistry().fetchRegistry());
+
+		postProcess(new MockEnvironment());
+		assertNull(new SnapshotBackupRegistry().fetchRegistry());
+	}
+
+	private RegistrySnapshot snapshot(Path file, Duration maxAge) {
+		postProcess(new MockEnvironment()
+				.withProperty("registry-snapshot.file", file.toString())
+				.withProperty("registry-snapshot.max-age", maxAge.toString()));
+		return new RegistrySnapshot(provider());
+	}
+
+	private ObjectProvider<EurekaClient> provider() {
+		return new StaticListableBeanFactory(Map.of("eurekaClient", eurekaClient)).getBeanProvider(EurekaClient.class);
+	}
+
+	private static void postProcess(MockEnvironment environment) {
+		new RegistrySnapshotEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+	}
+
+	private static Applications registry(int... ports) {
+		Application application = new Application("CURRENCY-EXCHANGE-SERVICE");
+		for (int port : ports) {
+			application.addInstance(InstanceInfo.Builder.newBuilder()
+					.setAppName("CURRENCY-EXCHANGE-SERVICE")
+					.setInstanceId("exchange-" + port)
+					.setHostName("localhost")
+					.setIPAddr("127.0.0.1")
+					.setPort(port)
+					.setVIPAddress("currency-exchange-service")
+					.setDataCenterInfo(() -> DataCenterInfo.Name.MyOwn)
+					.build());
+		}
+		Applications applications = new Applications();
+		applications.addApplication(application);
+		applications.setAppsHashCode(applications.getReconcileHashCode());
+		return applications;
+	}
+}
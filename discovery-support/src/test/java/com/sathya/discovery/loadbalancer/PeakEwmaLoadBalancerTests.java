@@ -0,0 +1,75 @@
+package com.sathya.discovery.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeakEwmaLoadBalancerTests {
+
+	private static final String SERVICE_ID = "currency-exchange-service";
+
+	private final ServiceInstance fast = new DefaultServiceInstance("exchange-1", SERVICE_ID, "localhost", 8000, false);
+	private final ServiceInstance slow = new DefaultServiceInstance("exchange-2", SERVICE_ID, "localhost", 8001, false);
+
+	@Test
+	void prefersTheFasterInstanceUntilItIsBusy() {
+		PeakEwmaLoadBalancer balancer = balancer(Duration.ofSeconds(10));
+		complete(balancer, fast, 5);
+		complete(balancer, slow, 50);
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals(fast, balancer.choose(new DefaultRequest<>()).block().getServer());
+		}
+
+		// 5 ms with ten requests queued costs more than an idle 50 ms instance
+		for (int i = 0; i < 10; i++) {
+			balancer.onStartRequest(new DefaultRequest<>(new DefaultRequestContext()), response(fast));
+		}
+		assertEquals(slow, balancer.choose(new DefaultRequest<>()).block().getServer());
+	}
+
+	@Test
+	void triesASlowInstanceAgainOnceItsLatencyHasDecayed() {
+		PeakEwmaLoadBalancer balancer = balancer(Duration.ofMillis(50));
+		complete(balancer, slow, 200);
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(200), balancer.latencyNanos(slow), TimeUnit.MILLISECONDS.toNanos(5));
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		ServiceInstance chosen;
+		do {
+			complete(balancer, fast, 5);
+			chosen = balancer.choose(List.of(fast, slow)).getServer();
+		} while (chosen == fast && System.nanoTime() < deadline);
+		assertEquals(slow, chosen);
+	}
+
+	private PeakEwmaLoadBalancer balancer(Duration decayTime) {
+		return new PeakEwmaLoadBalancer(ServiceInstanceListSuppliers.toProvider(SERVICE_ID, fast, slow), SERVICE_ID, decayTime);
+	}
+
+	// Reports one finished request that took the given time
+	private static void complete(PeakEwmaLoadBalancer balancer, ServiceInstance instance, long millis) {
+		DefaultRequestContext context = new DefaultRequestContext();
+		context.setRequestStartTime(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis));
+		Request<Object> request = new DefaultRequest<>(context);
+		balancer.onStartRequest(request, response(instance));
+		balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response(instance)));
+	}
+
+	private static Response<ServiceInstance> response(ServiceInstance instance) {
+		return new DefaultResponse(instance);
+	}
+}
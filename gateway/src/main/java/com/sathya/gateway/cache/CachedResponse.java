@@ -0,0 +1,71 @@
+package com.sathya.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Immutable snapshot of an upstream response: status, headers and the raw body
+ * bytes exactly as received, so it can be replayed without re-serialization.
+ */
+public class CachedResponse {
+
+    private final int status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final String etag;
+
+    public CachedResponse(int status, HttpHeaders headers, byte[] body) {
+        this.status = status;
+        this.body = body;
+        this.etag = "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (isReplayable(name)) {
+                copy.put(name, values);
+            }
+        });
+        copy.setETag(etag);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    /**
+     * Hop-by-hop and length headers are recomputed on replay, and per-caller headers
+     * (rate limit state, cookies, cache status) must never reach another caller.
+     */
+    private static boolean isReplayable(String name) {
+        return !name.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)
+                && !name.equalsIgnoreCase(HttpHeaders.CONNECTION)
+                && !name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                && !name.equalsIgnoreCase(HttpHeaders.SET_COOKIE)
+                && !name.equalsIgnoreCase("X-Cache")
+                && !name.regionMatches(true, 0, "RateLimit-", 0, "RateLimit-".length());
+    }
+
+    // Replays the snapshot onto a response; headers the caller already has (e.g. its own rate limit) are kept
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatusCode.valueOf(status));
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,179 @@
+package com.sathya.gateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory store for cached upstream responses. Each entry has a fresh
+ * window (served as a hit) followed by a stale-while-revalidate window (served
+ * while one background refresh runs); after that it is dropped.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    public enum Freshness { FRESH, STALE }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    // A full cache is trimmed to this size, so the O(n) eviction pass runs once per ~10% of puts
+    private final int evictTo;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter bytesSaved;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${gateway.response-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.evictTo = maxEntries - Math.max(1, maxEntries / 10);
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.evictions = Counter.builder("gateway.response.cache.evictions")
+                .description("Entries evicted from the response cache")
+                .register(meterRegistry);
+        this.bytesSaved = Counter.builder("gateway.response.cache.bytes.saved")
+                .baseUnit("bytes")
+                .description("Response body bytes served without an upstream call")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.size", entries, Map::size)
+                .description("Entries currently held in the response cache")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.hit.ratio", this, ResponseCache::hitRatio)
+                .description("Share of cacheable requests answered from the cache")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.response.cache.requests")
+                .tag("result", result)
+                .description("Response cache lookups")
+                .register(meterRegistry);
+    }
+
+    // Returns the entry if it is fresh or within its stale window, otherwise null
+    public Entry get(String key) {
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+
+        if (entry == null || entry.staleUntil <= now) {
+            if (entry != null && entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+
+        if (entry.freshness(now) == Freshness.FRESH) {
+            hits.increment();
+        } else {
+            staleHits.increment();
+        }
+        return entry;
+    }
+
+    public void put(String key, CachedResponse response, Duration ttl, Duration staleWhileRevalidate) {
+        // One thread trims while the others keep writing; the cache may briefly overshoot
+        if (entries.size() >= maxEntries && evictionLock.tryLock()) {
+            try {
+                evict();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        long freshUntil = now + ttl.toMillis();
+        entries.put(key, new Entry(response, freshUntil, freshUntil + staleWhileRevalidate.toMillis()));
+    }
+
+    // Records body bytes that did not have to travel from upstream (cache hits and 304s)
+    public void recordBytesSaved(int bytes) {
+        bytesSaved.increment(bytes);
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + staleHits.count();
+        double total = served + misses.count();
+        return total == 0 ? 0.0 : served / total;
+    }
+
+    /**
+     * Drops fully expired entries first and, if the cache is still above evictTo,
+     * removes arbitrary entries until it is down to evictTo.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().staleUntil <= now) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        iterator = entries.values().iterator();
+        while (entries.size() > evictTo && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            removed++;
+        }
+
+        if (removed > 0) {
+            evictions.increment(removed);
+            logger.debug("🧹 Evicted {} entries from response cache", removed);
+        }
+    }
+
+    public static final class Entry {
+        private final CachedResponse response;
+        private final long freshUntil;
+        private final long staleUntil;
+        // Earliest time a refresh may start; Long.MAX_VALUE while one is running
+        private final AtomicLong revalidateAfter = new AtomicLong();
+
+        private Entry(CachedResponse response, long freshUntil, long staleUntil) {
+            this.response = response;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+        }
+
+        public CachedResponse getResponse() {
+            return response;
+        }
+
+        public Freshness freshness(long now) {
+            return now < freshUntil ? Freshness.FRESH : Freshness.STALE;
+        }
+
+        // Only the first caller that sees the entry stale gets to refresh it
+        public boolean startRevalidation(long now) {
+            long after = revalidateAfter.get();
+            return after <= now && revalidateAfter.compareAndSet(after, Long.MAX_VALUE);
+        }
+
+        // The stale copy keeps being served; no new refresh until the backoff has passed
+        public void revalidationFailed(long now, Duration backoff) {
+            revalidateAfter.set(now + backoff.toMillis());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.sathya.gateway.cache;
+
+import com.sathya.gateway.model.TokenValidationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of successful token validations, keyed by the SHA-256 digest of the token.
+ * Entries live until the token's own expiry and are evicted by size.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final Map<String, CachedResult> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    // A full cache is trimmed to this size, so the O(n) eviction pass runs once per ~10% of puts
+    private final int evictTo;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.evictTo = maxSize - Math.max(1, maxSize / 10);
+        this.hits = Counter.builder("gateway.jwt.cache.requests")
+                .tag("result", "hit")
+                .description("Verified token cache lookups")
+                .register(meterRegistry);
+        this.misses = Counter.builder("gateway.jwt.cache.requests")
+                .tag("result", "miss")
+                .description("Verified token cache lookups")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("gateway.jwt.cache.evictions")
+                .description("Entries evicted from the verified token cache")
+                .register(meterRegistry);
+        Gauge.builder("gateway.jwt.cache.size", entries, Map::size)
+                .description("Entries currently held in the verified token cache")
+                .register(meterRegistry);
+    }
+
+    // Returns the cached result for a token that is still within its expiry, or null
+    public TokenValidationResult get(String token) {
+        String key = digest(token);
+        CachedResult cached = entries.get(key);
+
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (cached.expiresAt <= System.currentTimeMillis()) {
+            // Token expired while cached - drop it and force a fresh parse
+            if (entries.remove(key, cached)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return cached.result;
+    }
+
+    // Stores a valid result until the token's exp claim
+    public void put(String token, TokenValidationResult result) {
+        Date expiration = result.getExpiresAt();
+        if (expiration == null) {
+            return;  // Never cache tokens without an expiry
+        }
+
+        // One thread trims while the others keep writing; the cache may briefly overshoot
+        if (entries.size() >= maxSize && evictionLock.tryLock()) {
+            try {
+                evict();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        entries.put(digest(token), new CachedResult(result, expiration.getTime()));
+    }
+
+    // Drops everything, e.g. after the signing keys were rotated
+    public void clear() {
+        int removed = entries.size();
+        entries.clear();
+        evictions.increment(removed);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries first and, if the cache is still above evictTo,
+     * removes arbitrary entries until it is down to evictTo.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        Iterator<CachedResult> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        iterator = entries.values().iterator();
+        while (entries.size() > evictTo && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            removed++;
+        }
+
+        if (removed > 0) {
+            evictions.increment(removed);
+            logger.debug("🧹 Evicted {} entries from verified token cache", removed);
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedResult {
+        private final TokenValidationResult result;
+        private final long expiresAt;
+
+        private CachedResult(TokenValidationResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
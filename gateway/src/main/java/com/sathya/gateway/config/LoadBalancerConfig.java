@@ -0,0 +1,17 @@
+package com.sathya.gateway.config;
+
+import com.sathya.discovery.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces Spring Cloud LoadBalancer's round-robin with PeakEwmaLoadBalancer for the
+ * lb:// routes, including the discovery locator's. load-balancer.latency-aware.enabled=false
+ * restores round-robin.
+ */
+@Configuration
+@ConditionalOnProperty(name = "load-balancer.latency-aware.enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
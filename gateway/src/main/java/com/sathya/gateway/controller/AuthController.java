@@ -2,6 +2,8 @@ package com.sathya.gateway.controller;
 
 import com.sathya.gateway.model.AuthRequest;
 import com.sathya.gateway.model.AuthResponse;
+import com.sathya.gateway.model.TokenValidationResult;
+import com.sathya.gateway.service.CredentialService;
 import com.sathya.gateway.util.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +15,9 @@ import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -24,49 +28,52 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
     
-    // Simple in-memory user store for demo (Replace with database in production)
-    private static final Map<String, String> USERS = new HashMap<>();
-    
-    static {
-        USERS.put("admin", "admin123");
-        USERS.put("user", "user123");
-        USERS.put("test", "test123");
-    }
+    @Autowired
+    private CredentialService credentialService;
     
     @PostMapping("/login")
     public Mono<ResponseEntity<AuthResponse>> login(@Valid @RequestBody AuthRequest authRequest) {
         logger.info("🔐 Login attempt for user: {}", authRequest.getUsername());
         
-        // Validate credentials
-        String storedPassword = USERS.get(authRequest.getUsername());
-        
-        if (storedPassword == null || !storedPassword.equals(authRequest.getPassword())) {
-            logger.warn("❌ Invalid credentials for user: {}", authRequest.getUsername());
-            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new AuthResponse(null, "Invalid username or password", null)));
-        }
-        
+        // Credential check runs on the auth scheduler, off the event loop
+        return credentialService.authenticate(authRequest.getUsername(), authRequest.getPassword())
+                .map(authenticated -> {
+                    if (!authenticated) {
+                        logger.warn("❌ Invalid credentials for user: {}", authRequest.getUsername());
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(new AuthResponse(null, "Invalid username or password", null));
+                    }
+                    return createTokenResponse(authRequest.getUsername());
+                })
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    logger.warn("⚠️ Login rejected, hashing pool saturated: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body(new AuthResponse(null, "Too many login attempts, please retry", null)));
+                });
+    }
+    
+    private ResponseEntity<AuthResponse> createTokenResponse(String username) {
         try {
             // Generate JWT token
             Map<String, Object> claims = new HashMap<>();
             claims.put("role", "USER"); // Add role or other claims as needed
             
-            String token = jwtUtil.generateToken(authRequest.getUsername(), claims);
+            String token = jwtUtil.generateToken(username, claims);
             
-            logger.info("✅ Token generated successfully for user: {}", authRequest.getUsername());
+            logger.info("✅ Token generated successfully for user: {}", username);
             
             AuthResponse response = new AuthResponse(
                     token,
                     "Authentication successful",
-                    authRequest.getUsername()
+                    username
             );
             
-            return Mono.just(ResponseEntity.ok(response));
+            return ResponseEntity.ok(response);
             
         } catch (Exception e) {
             logger.error("❌ Token generation failed: {}", e.getMessage());
-            return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new AuthResponse(null, "Token generation failed", null)));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new AuthResponse(null, "Token generation failed", null));
         }
     }
     
@@ -74,19 +81,22 @@ public class AuthController {
     public Mono<ResponseEntity<Map<String, String>>> register(@Valid @RequestBody AuthRequest authRequest) {
         logger.info("📝 Registration attempt for user: {}", authRequest.getUsername());
         
-        // Check if user already exists
-        if (USERS.containsKey(authRequest.getUsername())) {
-            logger.warn("❌ User already exists: {}", authRequest.getUsername());
-            return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(Map.of("message", "User already exists")));
-        }
-        
-        // Register new user
-        USERS.put(authRequest.getUsername(), authRequest.getPassword());
-        logger.info("✅ User registered successfully: {}", authRequest.getUsername());
-        
-        return Mono.just(ResponseEntity.status(HttpStatus.CREATED)
-                .body(Map.of("message", "User registered successfully")));
+        return credentialService.register(authRequest.getUsername(), authRequest.getPassword())
+                .map(created -> {
+                    if (!created) {
+                        logger.warn("❌ User already exists: {}", authRequest.getUsername());
+                        return ResponseEntity.status(HttpStatus.CONFLICT)
+                                .body(Map.of("message", "User already exists"));
+                    }
+                    logger.info("✅ User registered successfully: {}", authRequest.getUsername());
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(Map.of("message", "User registered successfully"));
+                })
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    logger.warn("⚠️ Registration rejected, hashing pool saturated: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body(Map.of("message", "Too many requests, please retry")));
+                });
     }
     
     @GetMapping("/validate")
@@ -102,20 +112,26 @@ public class AuthController {
                     .body(Map.of("valid", false, "message", "Invalid token format")));
         }
         
-        boolean isValid = jwtUtil.validateToken(token);
+        // One parse yields validity, principal, roles and expiry
+        TokenValidationResult result = jwtUtil.validate(token);
         
-        if (isValid) {
-            String username = jwtUtil.extractUsername(token);
-            logger.info("✅ Token valid for user: {}", username);
-            return Mono.just(ResponseEntity.ok(Map.of(
-                    "valid", true,
-                    "username", username,
-                    "message", "Token is valid"
-            )));
+        if (result.isValid()) {
+            logger.info("✅ Token valid for user: {}", result.getUsername());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("valid", true);
+            body.put("username", result.getUsername());
+            body.put("roles", result.getRoles());
+            body.put("expiresAt", result.getExpiresAt());
+            body.put("message", "Token is valid");
+            return Mono.just(ResponseEntity.ok(body));
         } else {
-            logger.warn("❌ Invalid token");
+            logger.warn("❌ Invalid token: {}", result.getFailureReason());
             return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("valid", false, "message", "Token is invalid or expired")));
+                    .body(Map.of(
+                            "valid", false,
+                            "reason", result.getFailureReason(),
+                            "message", result.getFailureReason().getMessage()
+                    )));
         }
     }
     
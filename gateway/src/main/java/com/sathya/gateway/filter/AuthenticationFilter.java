@@ -1,10 +1,13 @@
 package com.sathya.gateway.filter;
 
+import com.sathya.gateway.model.TokenValidationResult;
 import com.sathya.gateway.util.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -14,13 +17,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 @Component
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
     
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    
+    // Explicit orders keep auth -> rate limit -> response cache ahead of NettyWriteResponseFilter,
+    // which must see any response decorators installed by the later filters
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 40;
+    
     @Autowired
     private JwtUtil jwtUtil;
     
@@ -30,7 +38,7 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
     
     @Override
     public GatewayFilter apply(Config config) {
-        return (exchange, chain) -> {
+        return new OrderedGatewayFilter((exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
             
             logger.debug("🔍 Processing request: {} {}", request.getMethod(), request.getURI());
@@ -52,18 +60,23 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
             
             // Validate token
             try {
-                if (!jwtUtil.validateToken(token)) {
-                    logger.warn("❌ Invalid JWT token for: {}", request.getURI());
-                    return onError(exchange, "Invalid or expired JWT token", HttpStatus.UNAUTHORIZED);
+                // Single parse per distinct token; repeats are served from the cache
+                TokenValidationResult result = jwtUtil.validate(token);
+                if (!result.isValid()) {
+                    logger.warn("❌ Invalid JWT token for: {} ({})", request.getURI(), result.getFailureReason());
+                    return onError(exchange, result.getFailureReason().getMessage(), HttpStatus.UNAUTHORIZED);
                 }
                 
-                // Extract username and add to request headers
-                String username = jwtUtil.extractUsername(token);
+                String username = result.getUsername();
                 logger.debug("✅ Token validated for user: {}", username);
                 
-                // Add username to request headers for downstream services
+                // Forward the principal and roles so downstream services never decode the JWT.
+                // set() replaces any client-supplied values for these headers.
                 ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                        .header("X-User-Id", username)
+                        .headers(headers -> {
+                            headers.set(USER_ID_HEADER, username);
+                            headers.set(USER_ROLES_HEADER, String.join(",", result.getRoles()));
+                        })
                         .build();
                 
                 return chain.filter(exchange.mutate().request(modifiedRequest).build());
@@ -72,7 +85,7 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
                 logger.error("❌ Token validation error: {}", e.getMessage());
                 return onError(exchange, "JWT validation failed: " + e.getMessage(), HttpStatus.UNAUTHORIZED);
             }
-        };
+        }, ORDER);
     }
     
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
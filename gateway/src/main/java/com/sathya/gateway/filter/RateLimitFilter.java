@@ -0,0 +1,127 @@
+package com.sathya.gateway.filter;
+
+import com.sathya.gateway.ratelimit.RateLimitStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user, per-route token bucket limiting. Ordered after AuthenticationFilter
+ * so the bucket is keyed by the authenticated X-User-Id; requests without one are
+ * keyed by client address.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    public static final int ORDER = AuthenticationFilter.ORDER + 10;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    public RateLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() <= 0) {
+            throw new IllegalArgumentException("RateLimitFilter requires positive replenishRate and burstCapacity");
+        }
+
+        long capacity = config.getBurstCapacity();
+        long intervalNanos = NANOS_PER_SECOND / config.getReplenishRate();
+        String limitValue = Long.toString(capacity);
+        String policyValue = capacity + ";w=" + Math.max(1, capacity / config.getReplenishRate());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String namespace = route != null ? route.getId() : "default";
+            String key = resolveKey(request, config.getKeyHeader());
+
+            long decision = rateLimitStore.tryAcquire(namespace, key, capacity, intervalNanos);
+
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            headers.set("RateLimit-Limit", limitValue);
+            headers.set("RateLimit-Policy", policyValue);
+
+            if (decision >= 0) {
+                headers.set("RateLimit-Remaining", Long.toString(decision));
+                // Seconds until the bucket is full again
+                headers.set("RateLimit-Reset", Long.toString(toSeconds((capacity - decision) * intervalNanos)));
+                return chain.filter(exchange);
+            }
+
+            long retryAfterSeconds = toSeconds(-decision);
+            logger.warn("⛔ Rate limit exceeded for {} on route {}", key, namespace);
+
+            headers.set("RateLimit-Remaining", "0");
+            headers.set("RateLimit-Reset", Long.toString(retryAfterSeconds));
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return onLimitExceeded(exchange.getResponse());
+        }, ORDER);
+    }
+
+    private String resolveKey(ServerHttpRequest request, String keyHeader) {
+        String key = request.getHeaders().getFirst(keyHeader);
+        if (key != null) {
+            return key;
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : "anonymous";
+    }
+
+    private long toSeconds(long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+
+    private Mono<Void> onLimitExceeded(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().add("Content-Type", "application/json");
+
+        String errorJson = String.format("{\"error\":\"%s\",\"message\":\"%s\"}",
+                                        HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                                        "Rate limit exceeded, retry later");
+
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(errorJson.getBytes())));
+    }
+
+    public static class Config {
+        // Tokens added per second (sustained rate)
+        private int replenishRate = 10;
+
+        // Maximum tokens in the bucket (burst size)
+        private int burstCapacity = 20;
+
+        // Request header the bucket is keyed by
+        private String keyHeader = AuthenticationFilter.USER_ID_HEADER;
+
+        public int getReplenishRate() { return replenishRate; }
+        public void setReplenishRate(int replenishRate) { this.replenishRate = replenishRate; }
+
+        public int getBurstCapacity() { return burstCapacity; }
+        public void setBurstCapacity(int burstCapacity) { this.burstCapacity = burstCapacity; }
+
+        public String getKeyHeader() { return keyHeader; }
+        public void setKeyHeader(String keyHeader) { this.keyHeader = keyHeader; }
+    }
+}
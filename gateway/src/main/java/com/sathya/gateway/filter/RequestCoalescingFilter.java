@@ -0,0 +1,188 @@
+package com.sathya.gateway.filter;
+
+import com.sathya.gateway.cache.CachedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight for GETs: while one identical request is already in flight upstream,
+ * later ones wait for its buffered response instead of making their own call. Ordered
+ * after ResponseCacheFilter, so only cache misses are coalesced.
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescingFilter.class);
+
+    // Must stay below NettyWriteResponseFilter's order so the leader's decorator sees the body
+    public static final int ORDER = ResponseCacheFilter.ORDER + 10;
+
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter forwarded;
+    private final Counter coalesced;
+    private final Counter fallbacks;
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.forwarded = requestCounter(meterRegistry, "forwarded");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        this.fallbacks = requestCounter(meterRegistry, "fallback");
+        Gauge.builder("gateway.coalescing.in.flight", inFlight, Map::size)
+                .description("Distinct upstream GETs currently being shared")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.coalescing.requests")
+                .tag("result", result)
+                .description("GET requests forwarded upstream vs served from a shared in-flight call")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = coalescingKey(exchange, config);
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+
+            if (leader != null) {
+                // Follower: wait for the leader, or make our own call if it fails or takes too long
+                return leader.asMono()
+                        .timeout(config.getTimeout())
+                        .flatMap(shared -> {
+                            coalesced.increment();
+                            return shared.writeTo(exchange.getResponse());
+                        })
+                        .onErrorResume(e -> {
+                            fallbacks.increment();
+                            logger.debug("⚠️ Coalesced request for {} falling back to upstream: {}", key, e.getMessage());
+                            return chain.filter(exchange);
+                        });
+            }
+
+            // Leader: forward upstream and publish the buffered response to any followers
+            forwarded.increment();
+            SharingResponseDecorator decorator = new SharingResponseDecorator(exchange, sink);
+            return chain.filter(exchange.mutate().response(decorator).build())
+                    .doFinally(signal -> {
+                        inFlight.remove(key, sink);
+                        // Releases followers if the leader ended without a shareable response
+                        sink.tryEmitError(new IllegalStateException("leader ended with " + signal));
+                    });
+        }, ORDER);
+    }
+
+    private String coalescingKey(ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+
+        StringBuilder key = new StringBuilder()
+                .append(route != null ? route.getId() : "")
+                .append('|')
+                .append(request.getURI().getRawPath());
+
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+
+        HttpHeaders headers = request.getHeaders();
+        for (String header : config.getVaryHeaders()) {
+            key.append('|').append(headers.getFirst(header));
+        }
+
+        // On authenticated routes a response is only shared with the same user unless configured otherwise
+        if (!config.isShareAcrossUsers()) {
+            key.append('|').append(headers.getFirst(AuthenticationFilter.USER_ID_HEADER));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Buffers a 200 upstream body, hands the snapshot to waiting followers and writes
+     * the same bytes to the leader's client.
+     */
+    private static class SharingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final Sinks.One<CachedResponse> sink;
+
+        SharingResponseDecorator(ServerWebExchange exchange, Sinks.One<CachedResponse> sink) {
+            super(exchange.getResponse());
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value()) {
+                sink.tryEmitError(new IllegalStateException("upstream returned " + status));
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body))
+                    .flatMap(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+
+                        sink.tryEmitValue(new CachedResponse(status.value(), getHeaders(), bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    })
+                    .switchIfEmpty(Mono.defer(() -> super.writeWith(Flux.empty())));
+        }
+    }
+
+    public static class Config {
+        // Longest a follower waits for the leader before calling upstream itself
+        private Duration timeout = Duration.ofSeconds(5);
+
+        // Request headers that make otherwise identical GETs distinct
+        private List<String> varyHeaders = new ArrayList<>(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+
+        // Share one upstream response between different users (only for user-independent resources)
+        private boolean shareAcrossUsers = false;
+
+        public Duration getTimeout() { return timeout; }
+        public void setTimeout(Duration timeout) { this.timeout = timeout; }
+
+        public List<String> getVaryHeaders() { return varyHeaders; }
+        public void setVaryHeaders(List<String> varyHeaders) { this.varyHeaders = varyHeaders; }
+
+        public boolean isShareAcrossUsers() { return shareAcrossUsers; }
+        public void setShareAcrossUsers(boolean shareAcrossUsers) { this.shareAcrossUsers = shareAcrossUsers; }
+    }
+}
@@ -0,0 +1,282 @@
+package com.sathya.gateway.filter;
+
+import com.sathya.gateway.cache.CachedResponse;
+import com.sathya.gateway.cache.ResponseCache;
+import com.sathya.gateway.cache.ResponseCache.Freshness;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Caches GET responses at the edge. Ordered after AuthenticationFilter so only
+ * authenticated requests reach the cache and X-User-Id is available for per-user keys.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    // Must stay below NettyWriteResponseFilter's order so the caching decorator sees the body
+    public static final int ORDER = RateLimitFilter.ORDER + 10;
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    private final WebClient revalidationClient;
+
+    // Background refreshes go through the same load balancer as routed traffic
+    public ResponseCacheFilter(ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction) {
+        super(Config.class);
+        this.revalidationClient = WebClient.builder().filter(loadBalancerFunction).build();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> patterns = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+
+            if (request.getMethod() != HttpMethod.GET || !matches(patterns, request)) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(exchange, config);
+            ResponseCache.Entry entry = responseCache.get(key);
+
+            if (entry != null) {
+                long now = System.currentTimeMillis();
+                Freshness freshness = entry.freshness(now);
+                if (freshness == Freshness.STALE && entry.startRevalidation(now)) {
+                    revalidate(exchange, key, entry, config);
+                }
+                return writeCached(exchange, entry.getResponse(), freshness == Freshness.FRESH ? "HIT" : "STALE");
+            }
+
+            CachingResponseDecorator decorator = new CachingResponseDecorator(exchange, key, config);
+            return chain.filter(exchange.mutate().response(decorator).build());
+        }, ORDER);
+    }
+
+    private boolean matches(List<PathPattern> patterns, ServerHttpRequest request) {
+        if (patterns.isEmpty()) {
+            return true;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String cacheKey(ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+
+        StringBuilder key = new StringBuilder()
+                .append(route != null ? route.getId() : "")
+                .append('|')
+                .append(request.getURI().getRawPath());
+
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+
+        // Responses that depend on the caller are never shared across users
+        if (config.isPerUser()) {
+            key.append('|').append(request.getHeaders().getFirst(AuthenticationFilter.USER_ID_HEADER));
+        }
+        return key.toString();
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        responseCache.recordBytesSaved(cached.getBody().length);
+
+        if (etagMatches(exchange.getRequest(), cached.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.getEtag());
+            response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+            return response.setComplete();
+        }
+
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        return cached.writeTo(response);
+    }
+
+    private boolean etagMatches(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    /**
+     * Refresh a stale entry in the background while the caller is served the stale copy.
+     * The request is replayed against the route URI (through the load balancer for lb:// routes).
+     */
+    private void revalidate(ServerWebExchange exchange, String key, ResponseCache.Entry entry, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            entry.revalidationFailed(System.currentTimeMillis(), config.getRevalidationBackoff());
+            return;
+        }
+
+        URI routeUri = route.getUri();
+        URI target = UriComponentsBuilder.fromUri(routeUri)
+                .scheme("lb".equals(routeUri.getScheme()) ? "http" : routeUri.getScheme())
+                .replacePath(request.getURI().getRawPath())
+                .replaceQuery(request.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(request.getHeaders());
+        headers.remove(HttpHeaders.HOST);
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+
+        revalidationClient.get()
+                .uri(target)
+                .headers(h -> h.addAll(headers))
+                .exchangeToMono(upstream -> {
+                    if (upstream.statusCode().value() != HttpStatus.OK.value()) {
+                        return upstream.releaseBody()
+                                .then(Mono.error(new IllegalStateException("upstream returned " + upstream.statusCode())));
+                    }
+                    return upstream.bodyToMono(byte[].class)
+                            .defaultIfEmpty(new byte[0])
+                            .map(body -> new CachedResponse(upstream.statusCode().value(),
+                                                            upstream.headers().asHttpHeaders(), body));
+                })
+                .timeout(config.getRevalidationTimeout())
+                .subscribe(
+                        fresh -> {
+                            responseCache.put(key, fresh, config.getTtl(), config.getStaleWhileRevalidate());
+                            logger.debug("🔄 Revalidated cached response for {}", key);
+                        },
+                        error -> {
+                            entry.revalidationFailed(System.currentTimeMillis(), config.getRevalidationBackoff());
+                            logger.warn("⚠️ Revalidation failed for {}: {}", key, error.getMessage());
+                        });
+    }
+
+    /**
+     * Buffers a 200 upstream body into a byte array, stores it and writes the same
+     * bytes to the client.
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Config config;
+
+        CachingResponseDecorator(ServerWebExchange exchange, String key, Config config) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.config = config;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value()) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body))
+                    .flatMap(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+
+                        CachedResponse cached = new CachedResponse(status.value(), getHeaders(), bytes);
+                        responseCache.put(key, cached, config.getTtl(), config.getStaleWhileRevalidate());
+
+                        getHeaders().setETag(cached.getEtag());
+                        getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+
+                        if (etagMatches(exchange.getRequest(), cached.getEtag())) {
+                            setStatusCode(HttpStatus.NOT_MODIFIED);
+                            getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                            return setComplete();
+                        }
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    })
+                    .switchIfEmpty(Mono.defer(() -> super.writeWith(Flux.empty())));
+        }
+    }
+
+    public static class Config {
+        // How long a response is served as fresh
+        private Duration ttl = Duration.ofSeconds(30);
+
+        // How long after ttl a stale copy may be served while it is refreshed in the background
+        private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+
+        private Duration revalidationTimeout = Duration.ofSeconds(5);
+
+        // After a failed refresh, how long the stale copy is served before the next attempt
+        private Duration revalidationBackoff = Duration.ofSeconds(5);
+
+        // Path patterns to cache within the route; empty means every GET on the route
+        private List<String> paths = new ArrayList<>();
+
+        // Key entries by X-User-Id so no response is shared across users
+        private boolean perUser = true;
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+        public Duration getStaleWhileRevalidate() { return staleWhileRevalidate; }
+        public void setStaleWhileRevalidate(Duration staleWhileRevalidate) { this.staleWhileRevalidate = staleWhileRevalidate; }
+
+        public Duration getRevalidationTimeout() { return revalidationTimeout; }
+        public void setRevalidationTimeout(Duration revalidationTimeout) { this.revalidationTimeout = revalidationTimeout; }
+
+        public Duration getRevalidationBackoff() { return revalidationBackoff; }
+        public void setRevalidationBackoff(Duration revalidationBackoff) { this.revalidationBackoff = revalidationBackoff; }
+
+        public List<String> getPaths() { return paths; }
+        public void setPaths(List<String> paths) { this.paths = paths; }
+
+        public boolean isPerUser() { return perUser; }
+        public void setPerUser(boolean perUser) { this.perUser = perUser; }
+    }
+}
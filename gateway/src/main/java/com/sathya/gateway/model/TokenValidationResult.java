@@ -0,0 +1,68 @@
+package com.sathya.gateway.model;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+// TokenValidationResult.java - outcome of a single JWT parse, valid or not
+public class TokenValidationResult {
+
+    public enum FailureReason {
+        MALFORMED("Malformed JWT token"),
+        EXPIRED("JWT token has expired"),
+        INVALID_SIGNATURE("Invalid JWT signature"),
+        UNSUPPORTED("Unsupported JWT token"),
+        ERROR("JWT validation failed");
+
+        private final String message;
+
+        FailureReason(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final String username;
+    private final List<String> roles;
+    private final Date expiresAt;
+    private final FailureReason failureReason;
+
+    private TokenValidationResult(String username, List<String> roles, Date expiresAt, FailureReason failureReason) {
+        this.username = username;
+        this.roles = roles;
+        this.expiresAt = expiresAt;
+        this.failureReason = failureReason;
+    }
+
+    public static TokenValidationResult valid(String username, List<String> roles, Date expiresAt) {
+        return new TokenValidationResult(username, Collections.unmodifiableList(roles), expiresAt, null);
+    }
+
+    public static TokenValidationResult invalid(FailureReason failureReason) {
+        return new TokenValidationResult(null, Collections.emptyList(), null, failureReason);
+    }
+
+    public boolean isValid() {
+        return failureReason == null;
+    }
+
+    // Getters
+    public String getUsername() {
+        return username;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public FailureReason getFailureReason() {
+        return failureReason;
+    }
+}
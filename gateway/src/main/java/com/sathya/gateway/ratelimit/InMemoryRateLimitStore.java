@@ -0,0 +1,92 @@
+package com.sathya.gateway.ratelimit;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets held in memory. Each bucket is a single AtomicLong holding
+ * its "theoretical arrival time" (GCRA): the instant at which the bucket would be
+ * full again. Taking a token is one CAS on that value, with no locks and no
+ * allocation once the bucket exists.
+ */
+@Component
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    // Idle (full) buckets are swept once a namespace grows beyond this many keys,
+    // at most once per SWEEP_INTERVAL_NANOS so a namespace of active buckets is not rescanned per new key
+    private static final int SWEEP_THRESHOLD = 100_000;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Map<String, AtomicLong>> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final int sweepThreshold;
+    private final AtomicLong lastSweep;
+
+    public InMemoryRateLimitStore() {
+        this(System::nanoTime, SWEEP_THRESHOLD);
+    }
+
+    InMemoryRateLimitStore(LongSupplier clock) {
+        this(clock, SWEEP_THRESHOLD);
+    }
+
+    InMemoryRateLimitStore(LongSupplier clock, int sweepThreshold) {
+        this.clock = clock;
+        this.sweepThreshold = sweepThreshold;
+        this.lastSweep = new AtomicLong(clock.getAsLong() - SWEEP_INTERVAL_NANOS);
+    }
+
+    @Override
+    public long tryAcquire(String namespace, String key, long capacity, long intervalNanos) {
+        Map<String, AtomicLong> namespaceBuckets = buckets.get(namespace);
+        if (namespaceBuckets == null) {
+            namespaceBuckets = buckets.computeIfAbsent(namespace, ns -> new ConcurrentHashMap<>());
+        }
+
+        long now = clock.getAsLong();
+        AtomicLong bucket = namespaceBuckets.get(key);
+        if (bucket == null) {
+            if (namespaceBuckets.size() >= sweepThreshold) {
+                sweepIdle(namespaceBuckets, now);
+            }
+            // A new bucket starts full, i.e. its arrival time is "now"
+            bucket = namespaceBuckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        long burstNanos = capacity * intervalNanos;
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long debt = next - now;
+
+            if (debt > burstNanos) {
+                // Bucket empty: report how long until one token has been refilled
+                return -(debt - burstNanos);
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return (burstNanos - debt) / intervalNanos;
+            }
+        }
+    }
+
+    private void sweepIdle(Map<String, AtomicLong> namespaceBuckets, long now) {
+        long last = lastSweep.get();
+        // Only the caller that wins the CAS pays for the scan
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        // A bucket whose arrival time has passed is full and equivalent to a new one
+        namespaceBuckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    // For tests
+    int bucketCount(String namespace) {
+        Map<String, AtomicLong> namespaceBuckets = buckets.get(namespace);
+        return namespaceBuckets == null ? 0 : namespaceBuckets.size();
+    }
+}
@@ -0,0 +1,22 @@
+package com.sathya.gateway.ratelimit;
+
+/**
+ * Backing store for token buckets. The in-memory implementation keeps buckets
+ * per gateway instance; a shared implementation (e.g. Redis) can be plugged in
+ * to enforce limits across instances.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Try to take one token from the bucket identified by namespace and key.
+     *
+     * @param namespace      bucket group, normally the route id
+     * @param key            bucket key within the group, normally the user id
+     * @param capacity       maximum tokens the bucket holds (burst size)
+     * @param intervalNanos  time needed to refill a single token
+     * @return the tokens remaining (&gt;= 0) when allowed, or the negated nanoseconds
+     *         until a token becomes available when denied. Encoded in a long so the
+     *         hot path does not allocate a result object.
+     */
+    long tryAcquire(String namespace, String key, long capacity, long intervalNanos);
+}
@@ -0,0 +1,51 @@
+package com.sathya.gateway.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Password checks and registration. Hashing is deliberately slow, so every call
+ * runs on the bounded auth scheduler and never on the reactor-netty event loop.
+ */
+@Service
+public class CredentialService {
+
+    private final CredentialStore credentialStore;
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler authScheduler;
+
+    // Compared against when the user does not exist, so unknown users cost the same as wrong passwords
+    private final String dummyHash;
+
+    @Autowired
+    public CredentialService(CredentialStore credentialStore,
+                             PasswordEncoder passwordEncoder,
+                             @Qualifier("authScheduler") Scheduler authScheduler) {
+        this.credentialStore = credentialStore;
+        this.passwordEncoder = passwordEncoder;
+        this.authScheduler = authScheduler;
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+    }
+
+    public Mono<Boolean> authenticate(String username, String password) {
+        return Mono.fromCallable(() -> {
+            String storedHash = credentialStore.findPasswordHash(username);
+            boolean matches = passwordEncoder.matches(password, storedHash != null ? storedHash : dummyHash);
+            return storedHash != null && matches;
+        }).subscribeOn(authScheduler);
+    }
+
+    public Mono<Boolean> register(String username, String password) {
+        return Mono.fromCallable(() -> {
+            // Cheap existence check first so duplicates skip the hashing cost
+            if (credentialStore.findPasswordHash(username) != null) {
+                return false;
+            }
+            return credentialStore.saveIfAbsent(username, passwordEncoder.encode(password));
+        }).subscribeOn(authScheduler);
+    }
+}
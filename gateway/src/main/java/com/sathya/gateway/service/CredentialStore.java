@@ -0,0 +1,15 @@
+package com.sathya.gateway.service;
+
+/**
+ * Storage for user credentials. Implementations hold password hashes only and
+ * must be safe for concurrent use; they may block (e.g. a JDBC-backed store),
+ * since callers invoke them off the event loop.
+ */
+public interface CredentialStore {
+
+    // Stored password hash for the user, or null if the user does not exist
+    String findPasswordHash(String username);
+
+    // Stores the hash unless the user already exists; returns true if it was stored
+    boolean saveIfAbsent(String username, String passwordHash);
+}
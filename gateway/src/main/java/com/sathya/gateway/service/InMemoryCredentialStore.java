@@ -0,0 +1,30 @@
+package com.sathya.gateway.service;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Simple in-memory user store for demo (Replace with a database-backed CredentialStore in production)
+@Component
+public class InMemoryCredentialStore implements CredentialStore {
+
+    private final Map<String, String> passwordHashes = new ConcurrentHashMap<>();
+
+    public InMemoryCredentialStore(PasswordEncoder passwordEncoder) {
+        passwordHashes.put("admin", passwordEncoder.encode("admin123"));
+        passwordHashes.put("user", passwordEncoder.encode("user123"));
+        passwordHashes.put("test", passwordEncoder.encode("test123"));
+    }
+
+    @Override
+    public String findPasswordHash(String username) {
+        return passwordHashes.get(username);
+    }
+
+    @Override
+    public boolean saveIfAbsent(String username, String passwordHash) {
+        return passwordHashes.putIfAbsent(username, passwordHash) == null;
+    }
+}
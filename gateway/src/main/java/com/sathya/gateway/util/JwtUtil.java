@@ -1,16 +1,32 @@
 package com.sathya.gateway.util;
 
+import com.sathya.gateway.cache.VerifiedTokenCache;
+import com.sathya.gateway.model.TokenValidationResult;
+import com.sathya.gateway.model.TokenValidationResult.FailureReason;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -19,15 +35,86 @@ public class JwtUtil {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
     
-    @Value("${jwt.secret}")
-    private String secret;
+    // Key id used when only jwt.secret is configured
+    private static final String DEFAULT_KEY_ID = "default";
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+    
+    // Swapped atomically on rotation; the parser reads it through the key locator
+    private volatile KeyRing keyRing;
+    
+    private JwtParser parser;
+    
+    @PostConstruct
+    void init() {
+        keyRing = loadKeyRing();
+        
+        Locator<Key> keyLocator = new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                return keyRing.verificationKey(header.getKeyId());
+            }
+        };
+        
+        // JwtParser is immutable and thread-safe, so one instance serves every request
+        // It also enforces exp and nbf, with no clock skew allowed
+        parser = Jwts.parser()
+                .keyLocator(keyLocator)
+                .build();
+        
+        logger.info("🔑 JWT key ring loaded with keys {} (active: {})", keyRing.keys.keySet(), keyRing.activeKeyId);
+    }
+    
+    /**
+     * Rebuild the key ring when jwt.* properties change at runtime (e.g. after
+     * /actuator/refresh), so keys can be rotated without a restart.
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean jwtKeysChanged = event.getKeys().stream().anyMatch(key -> key.startsWith("jwt."));
+        if (!jwtKeysChanged) {
+            return;
+        }
+        
+        KeyRing rotated = loadKeyRing();
+        keyRing = rotated;
+        
+        // Claims verified with a retired key must not outlive it
+        tokenCache.clear();
+        logger.info("🔄 JWT keys rotated to {} (active: {})", rotated.keys.keySet(), rotated.activeKeyId);
+    }
+    
+    /**
+     * Keys come from jwt.keys.&lt;kid&gt;; without any, jwt.secret becomes the single
+     * "default" key. jwt.active-key-id selects the key used to sign new tokens.
+     */
+    private KeyRing loadKeyRing() {
+        Map<String, String> secrets = Binder.get(environment)
+                .bind("jwt.keys", Bindable.mapOf(String.class, String.class))
+                .orElseGet(HashMap::new);
+        
+        if (secrets.isEmpty()) {
+            secrets = Map.of(DEFAULT_KEY_ID, environment.getRequiredProperty("jwt.secret"));
+        }
+        
+        Map<String, SecretKey> keys = new HashMap<>();
+        secrets.forEach((kid, value) -> keys.put(kid, Keys.hmacShaKeyFor(value.getBytes(StandardCharsets.UTF_8))));
+        
+        String activeKeyId = environment.getProperty("jwt.active-key-id",
+                keys.containsKey(DEFAULT_KEY_ID) ? DEFAULT_KEY_ID : keys.keySet().iterator().next());
+        
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("jwt.active-key-id '" + activeKeyId + "' is not one of " + keys.keySet());
+        }
+        
+        return new KeyRing(keys, activeKeyId);
     }
     
     // Generate token with username
@@ -45,46 +132,114 @@ public class JwtUtil {
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
+        KeyRing signingKeyRing = keyRing;
         
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
+                .header().keyId(signingKeyRing.activeKeyId).and()
+                .signWith(signingKeyRing.activeKey(), Jwts.SIG.HS512)
                 .compact();
     }
     
     // Validate token
     public Boolean validateToken(String token) {
+        return validate(token).isValid();
+    }
+    
+    /**
+     * Validate the token and extract principal, roles and expiry in a single parse.
+     * Failures are reported through the result instead of exceptions, and verified
+     * results are served from the token cache until the token's own expiry.
+     */
+    public TokenValidationResult validate(String token) {
+        // Reject obviously malformed input before paying for a parse and a thrown exception
+        if (!isWellFormed(token)) {
+            logger.error("❌ Invalid JWT token: not a compact JWS");
+            return TokenValidationResult.invalid(FailureReason.MALFORMED);
+        }
+        
+        TokenValidationResult cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        
+        TokenValidationResult result = parseAndVerify(token);
+        if (result.isValid()) {
+            tokenCache.put(token, result);
+        }
+        return result;
+    }
+    
+    private TokenValidationResult parseAndVerify(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
+            Claims claims = parser.parseSignedClaims(token).getPayload();
             
             logger.debug("✅ Token validation successful");
-            return !isTokenExpired(token);
+            return TokenValidationResult.valid(claims.getSubject(), extractRoles(claims), claims.getExpiration());
             
         } catch (ExpiredJwtException e) {
-            logger.error("❌ JWT token expired: {}", e.getMessage());
-            return false;
+            logger.error("❌ JWT token expired at {}", e.getClaims().getExpiration());
+            return TokenValidationResult.invalid(FailureReason.EXPIRED);
+        } catch (PrematureJwtException e) {
+            logger.error("❌ JWT token not valid before {}", e.getClaims().getNotBefore());
+            return TokenValidationResult.invalid(FailureReason.ERROR);
         } catch (UnsupportedJwtException e) {
             logger.error("❌ JWT token unsupported: {}", e.getMessage());
-            return false;
+            return TokenValidationResult.invalid(FailureReason.UNSUPPORTED);
         } catch (MalformedJwtException e) {
             logger.error("❌ Invalid JWT token: {}", e.getMessage());
-            return false;
-        } catch (SecurityException e) {
+            return TokenValidationResult.invalid(FailureReason.MALFORMED);
+        } catch (SignatureException e) {
             logger.error("❌ Invalid JWT signature: {}", e.getMessage());
-            return false;
+            return TokenValidationResult.invalid(FailureReason.INVALID_SIGNATURE);
         } catch (IllegalArgumentException e) {
             logger.error("❌ JWT claims string is empty: {}", e.getMessage());
-            return false;
+            return TokenValidationResult.invalid(FailureReason.MALFORMED);
         } catch (Exception e) {
             logger.error("❌ JWT validation error: {}", e.getMessage());
+            return TokenValidationResult.invalid(FailureReason.ERROR);
+        }
+    }
+    
+    // Roles are issued either as a "roles" list or a single "role" claim
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (roles instanceof Collection<?> collection) {
+            List<String> result = new ArrayList<>(collection.size());
+            collection.forEach(role -> result.add(String.valueOf(role)));
+            return result;
+        }
+        
+        Object role = claims.get("role");
+        if (role != null) {
+            return List.of(role.toString());
+        }
+        return List.of();
+    }
+    
+    // Compact JWS: three base64url segments separated by exactly two dots
+    private boolean isWellFormed(String token) {
+        if (token == null || token.isEmpty()) {
             return false;
         }
+        
+        int dots = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                dots++;
+            } else if (!isBase64Url(c)) {
+                return false;
+            }
+        }
+        return dots == 2;
+    }
+    
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
     }
     
     // Extract username from token
@@ -105,18 +260,11 @@ public class JwtUtil {
     
     // Extract all claims
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
     
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
     // Extract token from Authorization header
     public String extractTokenFromHeader(String authHeader) {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -124,4 +272,30 @@ public class JwtUtil {
         }
         return null;
     }
+    
+    private static final class KeyRing {
+        private final Map<String, SecretKey> keys;
+        private final String activeKeyId;
+        
+        private KeyRing(Map<String, SecretKey> keys, String activeKeyId) {
+            this.keys = Collections.unmodifiableMap(keys);
+            this.activeKeyId = activeKeyId;
+        }
+        
+        private SecretKey activeKey() {
+            return keys.get(activeKeyId);
+        }
+        
+        // Tokens issued before kid headers existed fall back to the active key
+        private SecretKey verificationKey(String keyId) {
+            if (keyId == null) {
+                return activeKey();
+            }
+            SecretKey key = keys.get(keyId);
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown JWT key id: " + keyId);
+            }
+            return key;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.sathya.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTests {
+
+	private static final Duration TTL = Duration.ofMinutes(1);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ResponseCache cache = new ResponseCache(meterRegistry, 100);
+
+	@Test
+	void trimsAFullCacheByATenthAtOnce() {
+		for (int i = 0; i < 100; i++) {
+			cache.put("key-" + i, response(), TTL, TTL);
+		}
+		assertEquals(0, evictions());
+
+		cache.put("key-100", response(), TTL, TTL);
+		assertEquals(10, evictions());
+		assertNotNull(cache.get("key-100"));
+
+		// Room for nine more before the next eviction pass
+		for (int i = 101; i < 110; i++) {
+			cache.put("key-" + i, response(), TTL, TTL);
+		}
+		assertEquals(10, evictions());
+		assertEquals(100.0, meterRegistry.get("gateway.response.cache.size").gauge().value());
+	}
+
+	@Test
+	void backsOffAfterAFailedRevalidation() {
+		cache.put("key", response(), Duration.ZERO, TTL);
+		ResponseCache.Entry entry = cache.get("key");
+		long now = System.currentTimeMillis();
+
+		assertTrue(entry.startRevalidation(now));
+		// One refresh at a time
+		assertFalse(entry.startRevalidation(now));
+
+		entry.revalidationFailed(now, Duration.ofSeconds(5));
+		assertFalse(entry.startRevalidation(now + 4_999));
+		assertTrue(entry.startRevalidation(now + 5_000));
+	}
+
+	private double evictions() {
+		return meterRegistry.get("gateway.response.cache.evictions").counter().count();
+	}
+
+	private static CachedResponse response() {
+		return new CachedResponse(200, new HttpHeaders(), "{}".getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,68 @@
+package com.sathya.gateway.cache;
+
+import com.sathya.gateway.model.TokenValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 100);
+
+	@Test
+	void trimsAFullCacheByATenthAtOnce() {
+		for (int i = 0; i < 100; i++) {
+			cache.put("token-" + i, valid(60_000));
+		}
+		assertEquals(100, cache.size());
+		assertEquals(0, evictions());
+
+		cache.put("token-100", valid(60_000));
+		assertEquals(91, cache.size());
+		assertEquals(10, evictions());
+		assertNotNull(cache.get("token-100"));
+
+		// Room for nine more before the next eviction pass
+		for (int i = 101; i < 110; i++) {
+			cache.put("token-" + i, valid(60_000));
+		}
+		assertEquals(100, cache.size());
+		assertEquals(10, evictions());
+	}
+
+	@Test
+	void dropsExpiredEntriesBeforeLiveOnes() {
+		for (int i = 0; i < 50; i++) {
+			cache.put("expired-" + i, valid(-1_000));
+		}
+		for (int i = 0; i < 50; i++) {
+			cache.put("live-" + i, valid(60_000));
+		}
+
+		cache.put("token", valid(60_000));
+
+		assertEquals(51, cache.size());
+		assertEquals(50, evictions());
+		assertNotNull(cache.get("live-0"));
+	}
+
+	@Test
+	void neverCachesTokensWithoutAnExpiry() {
+		cache.put("token", TokenValidationResult.valid("admin", List.of("ADMIN"), null));
+		assertNull(cache.get("token"));
+		assertEquals(0, cache.size());
+	}
+
+	private double evictions() {
+		return meterRegistry.get("gateway.jwt.cache.evictions").counter().count();
+	}
+
+	private static TokenValidationResult valid(long expiresInMillis) {
+		return TokenValidationResult.valid("admin", List.of("ADMIN"), new Date(System.currentTimeMillis() + expiresInMillis));
+	}
+}
@@ -0,0 +1,57 @@
+package com.sathya.gateway.controller;
+
+import com.sathya.gateway.model.AuthRequest;
+import com.sathya.gateway.model.AuthResponse;
+import com.sathya.gateway.service.CredentialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class AuthControllerTests {
+
+	private final CredentialService credentialService = mock(CredentialService.class);
+	private final AuthController controller = new AuthController();
+
+	AuthControllerTests() {
+		ReflectionTestUtils.setField(controller, "credentialService", credentialService);
+	}
+
+	@Test
+	void answers503WhenTheHashingPoolRejectsALogin() {
+		given(credentialService.authenticate("admin", "admin123"))
+				.willReturn(Mono.error(new RejectedExecutionException("pool full")));
+
+		ResponseEntity<AuthResponse> response = controller.login(new AuthRequest("admin", "admin123")).block();
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertNull(response.getBody().getToken());
+	}
+
+	@Test
+	void answers503WhenTheHashingPoolRejectsARegistration() {
+		given(credentialService.register("alice", "secret"))
+				.willReturn(Mono.error(new RejectedExecutionException("pool full")));
+
+		ResponseEntity<Map<String, String>> response = controller.register(new AuthRequest("alice", "secret")).block();
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+	}
+
+	@Test
+	void answers401ForWrongCredentials() {
+		given(credentialService.authenticate("admin", "wrong")).willReturn(Mono.just(false));
+
+		ResponseEntity<AuthResponse> response = controller.login(new AuthRequest("admin", "wrong")).block();
+
+		assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+	}
+}
@@ -0,0 +1,130 @@
+package com.sathya.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescingFilterTests {
+
+	private static final String PATH = "/currency-exchange/all";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RequestCoalescingFilter filterFactory = new RequestCoalescingFilter(meterRegistry);
+
+	// The first upstream call is held until the test releases it; later calls answer at once
+	private final Sinks.Empty<Void> releaseLeader = Sinks.empty();
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private HttpStatus leaderStatus = HttpStatus.OK;
+
+	private final GatewayFilterChain upstream = exchange -> {
+		int call = upstreamCalls.incrementAndGet();
+		Mono<Void> gate = call == 1 ? releaseLeader.asMono() : Mono.empty();
+		return gate.then(Mono.defer(() -> {
+			exchange.getResponse().setStatusCode(call == 1 ? leaderStatus : HttpStatus.OK);
+			return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+					.wrap(("rates " + call).getBytes(StandardCharsets.UTF_8))));
+		}));
+	};
+
+	@Test
+	void followersShareTheLeadersResponse() {
+		GatewayFilter filter = filter(Duration.ofSeconds(5), true);
+		MockServerWebExchange leader = exchange("alice");
+		MockServerWebExchange follower = exchange("bob");
+
+		Mono<Void> leaderDone = filter.filter(leader, upstream).cache();
+		Mono<Void> followerDone = filter.filter(follower, upstream).cache();
+		leaderDone.subscribe();
+		followerDone.subscribe();
+		releaseLeader.tryEmitEmpty();
+		leaderDone.block(Duration.ofSeconds(1));
+		followerDone.block(Duration.ofSeconds(1));
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals("rates 1", body(leader));
+		assertEquals("rates 1", body(follower));
+		assertEquals(1, counter("forwarded"));
+		assertEquals(1, counter("coalesced"));
+	}
+
+	@Test
+	void followerCallsUpstreamItselfWhenTheLeaderTakesTooLong() {
+		GatewayFilter filter = filter(Duration.ofMillis(100), true);
+		MockServerWebExchange leader = exchange("alice");
+		MockServerWebExchange follower = exchange("bob");
+
+		filter.filter(leader, upstream).subscribe();
+		filter.filter(follower, upstream).block(Duration.ofSeconds(1));
+
+		assertEquals(2, upstreamCalls.get());
+		assertEquals("rates 2", body(follower));
+		assertEquals(1, counter("fallback"));
+		releaseLeader.tryEmitEmpty();
+	}
+
+	@Test
+	void followerCallsUpstreamItselfWhenTheLeaderFails() {
+		leaderStatus = HttpStatus.SERVICE_UNAVAILABLE;
+		GatewayFilter filter = filter(Duration.ofSeconds(5), true);
+		MockServerWebExchange leader = exchange("alice");
+		MockServerWebExchange follower = exchange("bob");
+
+		Mono<Void> leaderDone = filter.filter(leader, upstream).cache();
+		Mono<Void> followerDone = filter.filter(follower, upstream).cache();
+		leaderDone.subscribe();
+		followerDone.subscribe();
+		releaseLeader.tryEmitEmpty();
+		followerDone.block(Duration.ofSeconds(1));
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, leader.getResponse().getStatusCode());
+		assertEquals("rates 2", body(follower));
+		assertEquals(1, counter("fallback"));
+	}
+
+	@Test
+	void doesNotShareAcrossUsersUnlessConfigured() {
+		GatewayFilter filter = filter(Duration.ofSeconds(5), false);
+
+		filter.filter(exchange("alice"), upstream).subscribe();
+		MockServerWebExchange other = exchange("bob");
+		filter.filter(other, upstream).block(Duration.ofSeconds(1));
+
+		assertEquals(2, upstreamCalls.get());
+		assertEquals("rates 2", body(other));
+		assertEquals(0, counter("coalesced"));
+		releaseLeader.tryEmitEmpty();
+	}
+
+	private GatewayFilter filter(Duration timeout, boolean shareAcrossUsers) {
+		RequestCoalescingFilter.Config config = new RequestCoalescingFilter.Config();
+		config.setTimeout(timeout);
+		config.setShareAcrossUsers(shareAcrossUsers);
+		return filterFactory.apply(config);
+	}
+
+	private static MockServerWebExchange exchange(String user) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get(PATH)
+				.header(AuthenticationFilter.USER_ID_HEADER, user));
+	}
+
+	private static String body(MockServerWebExchange exchange) {
+		return ((MockServerHttpResponse) exchange.getResponse()).getBodyAsString().block();
+	}
+
+	private double counter(String result) {
+		return meterRegistry.get("gateway.coalescing.requests").tag("result", result).counter().count();
+	}
+}
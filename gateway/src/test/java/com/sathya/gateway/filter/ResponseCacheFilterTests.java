@@ -0,0 +1,153 @@
+package com.sathya.gateway.filter;
+
+import com.sathya.gateway.cache.ResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ResponseCacheFilterTests {
+
+	private static final String PATH = "/currency-exchange/all";
+
+	// Real default methods, so WebClient's andThen composition still reaches the stubbed filter
+	private final ReactorLoadBalancerExchangeFilterFunction loadBalancer =
+			mock(ReactorLoadBalancerExchangeFilterFunction.class, CALLS_REAL_METHODS);
+	private final ResponseCacheFilter filterFactory = new ResponseCacheFilter(loadBalancer);
+	private final Route route = Route.async().id("exchange").uri("lb://currency-exchange-service")
+			.predicate(exchange -> true).build();
+
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private final GatewayFilterChain upstream = exchange -> {
+		upstreamCalls.incrementAndGet();
+		exchange.getResponse().setStatusCode(HttpStatus.OK);
+		exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		return exchange.getResponse().writeWith(Mono.just(
+				exchange.getResponse().bufferFactory().wrap("rates".getBytes(StandardCharsets.UTF_8))));
+	};
+
+	ResponseCacheFilterTests() {
+		ReflectionTestUtils.setField(filterFactory, "responseCache", new ResponseCache(new SimpleMeterRegistry(), 100));
+	}
+
+	@Test
+	void servesFreshHitsWithoutCallingUpstream() {
+		GatewayFilter filter = filter(Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+		MockServerHttpResponse miss = run(filter, get());
+		assertEquals("MISS", miss.getHeaders().getFirst("X-Cache"));
+		assertEquals("rates", miss.getBodyAsString().block());
+
+		MockServerHttpResponse hit = run(filter, get());
+		assertEquals("HIT", hit.getHeaders().getFirst("X-Cache"));
+		assertEquals("rates", hit.getBodyAsString().block());
+		assertEquals(miss.getHeaders().getETag(), hit.getHeaders().getETag());
+		assertEquals(1, upstreamCalls.get());
+	}
+
+	@Test
+	void answers304WhenTheEtagMatches() {
+		GatewayFilter filter = filter(Duration.ofMinutes(1), Duration.ofMinutes(1));
+		String etag = run(filter, get()).getHeaders().getETag();
+
+		MockServerHttpResponse notModified = run(filter, get().header(HttpHeaders.IF_NONE_MATCH, etag));
+
+		assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+		assertEquals(etag, notModified.getHeaders().getETag());
+		assertEquals("", notModified.getBodyAsString().defaultIfEmpty("").block());
+
+		// A different ETag gets the full body
+		MockServerHttpResponse changed = run(filter, get().header(HttpHeaders.IF_NONE_MATCH, "\"other\""));
+		assertEquals(HttpStatus.OK, changed.getStatusCode());
+		assertEquals("rates", changed.getBodyAsString().block());
+		assertEquals(1, upstreamCalls.get());
+	}
+
+	@Test
+	void goesUpstreamOnceTheEntryHasExpired() {
+		GatewayFilter filter = filter(Duration.ZERO, Duration.ZERO);
+
+		assertEquals("MISS", run(filter, get()).getHeaders().getFirst("X-Cache"));
+		assertEquals("MISS", run(filter, get()).getHeaders().getFirst("X-Cache"));
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void servesStaleWhileRevalidatingInTheBackground() {
+		doReturn(Mono.just(ClientResponse.create(HttpStatus.OK).body("fresh rates").build()))
+				.when(loadBalancer).filter(any(), any());
+		GatewayFilter filter = filter(Duration.ZERO, Duration.ofMinutes(1));
+		run(filter, get());
+
+		MockServerHttpResponse stale = run(filter, get());
+		assertEquals("STALE", stale.getHeaders().getFirst("X-Cache"));
+		assertEquals("rates", stale.getBodyAsString().block());
+		verify(loadBalancer, timeout(1_000)).filter(any(), any());
+
+		MockServerHttpResponse refreshed = run(filter, get());
+		assertEquals("fresh rates", refreshed.getBodyAsString().block());
+		assertEquals(1, upstreamCalls.get());
+	}
+
+	@Test
+	void backsOffAfterAFailedRevalidation() {
+		doReturn(Mono.error(new IllegalStateException("upstream down"))).when(loadBalancer).filter(any(), any());
+		GatewayFilter filter = filter(Duration.ZERO, Duration.ofMinutes(1));
+		run(filter, get());
+
+		run(filter, get());
+		verify(loadBalancer, timeout(1_000)).filter(any(), any());
+
+		// Still within the backoff: the stale copy is served without another attempt
+		MockServerHttpResponse stale = run(filter, get());
+		assertEquals("STALE", stale.getHeaders().getFirst("X-Cache"));
+		assertEquals("rates", stale.getBodyAsString().block());
+		verify(loadBalancer, times(1)).filter(any(), any());
+	}
+
+	private GatewayFilter filter(Duration ttl, Duration staleWhileRevalidate) {
+		ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+		config.setTtl(ttl);
+		config.setStaleWhileRevalidate(staleWhileRevalidate);
+		config.setRevalidationBackoff(Duration.ofMinutes(1));
+		config.setPerUser(false);
+		return filterFactory.apply(config);
+	}
+
+	private static MockServerHttpRequest.BaseBuilder<?> get() {
+		return MockServerHttpRequest.get(PATH);
+	}
+
+	private MockServerHttpResponse run(GatewayFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+		ServerWebExchange exchange = MockServerWebExchange.from(request);
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+		filter.filter(exchange, upstream).block();
+		return (MockServerHttpResponse) exchange.getResponse();
+	}
+}
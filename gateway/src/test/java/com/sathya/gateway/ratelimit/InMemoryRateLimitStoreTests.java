@@ -0,0 +1,70 @@
+package com.sathya.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRateLimitStoreTests {
+
+	private static final long INTERVAL = 1_000L;
+
+	private final AtomicLong now = new AtomicLong(1_000_000L);
+	private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(now::get);
+
+	@Test
+	void allowsBurstThenDenies() {
+		for (long expectedRemaining = 4; expectedRemaining >= 0; expectedRemaining--) {
+			assertEquals(expectedRemaining, store.tryAcquire("route", "admin", 5, INTERVAL));
+		}
+
+		long denied = store.tryAcquire("route", "admin", 5, INTERVAL);
+		assertTrue(denied < 0);
+		assertEquals(INTERVAL, -denied);
+	}
+
+	@Test
+	void refillsOverTime() {
+		for (int i = 0; i < 5; i++) {
+			store.tryAcquire("route", "admin", 5, INTERVAL);
+		}
+		assertTrue(store.tryAcquire("route", "admin", 5, INTERVAL) < 0);
+
+		now.addAndGet(2 * INTERVAL);
+
+		assertEquals(1, store.tryAcquire("route", "admin", 5, INTERVAL));
+		assertEquals(0, store.tryAcquire("route", "admin", 5, INTERVAL));
+		assertTrue(store.tryAcquire("route", "admin", 5, INTERVAL) < 0);
+	}
+
+	@Test
+	void bucketsAreIsolatedByRouteAndUser() {
+		assertEquals(0, store.tryAcquire("route-a", "admin", 1, INTERVAL));
+		assertTrue(store.tryAcquire("route-a", "admin", 1, INTERVAL) < 0);
+
+		assertEquals(0, store.tryAcquire("route-b", "admin", 1, INTERVAL));
+		assertEquals(0, store.tryAcquire("route-a", "user", 1, INTERVAL));
+	}
+
+	@Test
+	void sweepsIdleBucketsAtMostOncePerInterval() {
+		InMemoryRateLimitStore sweeping = new InMemoryRateLimitStore(now::get, 2);
+		sweeping.tryAcquire("route", "a", 1, INTERVAL);
+		sweeping.tryAcquire("route", "b", 1, INTERVAL);
+
+		// Over the threshold but every bucket is in use: nothing to remove
+		sweeping.tryAcquire("route", "c", 1, INTERVAL);
+		assertEquals(3, sweeping.bucketCount("route"));
+
+		// All idle now, but the last sweep was too recent to scan again
+		now.addAndGet(2 * INTERVAL);
+		sweeping.tryAcquire("route", "d", 1, INTERVAL);
+		assertEquals(4, sweeping.bucketCount("route"));
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		sweeping.tryAcquire("route", "e", 1, INTERVAL);
+		assertEquals(1, sweeping.bucketCount("route"));
+	}
+}
@@ -0,0 +1,96 @@
+package com.sathya.gateway.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialServiceTests {
+
+	private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+	private final Scheduler authScheduler = Schedulers.newBoundedElastic(1, 1, "auth-hashing");
+	private final InMemoryCredentialStore store = new InMemoryCredentialStore(passwordEncoder);
+	private final CredentialService credentialService = new CredentialService(store, passwordEncoder, authScheduler);
+
+	@AfterEach
+	void disposeScheduler() {
+		authScheduler.dispose();
+	}
+
+	@Test
+	void authenticatesOnlyMatchingPasswordsOfKnownUsers() {
+		assertTrue(credentialService.authenticate("admin", "admin123").block());
+		assertFalse(credentialService.authenticate("admin", "wrong").block());
+		assertFalse(credentialService.authenticate("nobody", "admin123").block());
+	}
+
+	@Test
+	void registersNewUsersOnce() {
+		assertTrue(credentialService.register("alice", "secret").block());
+		assertFalse(credentialService.register("alice", "other").block());
+		assertFalse(credentialService.register("admin", "other").block());
+
+		assertTrue(credentialService.authenticate("alice", "secret").block());
+		assertFalse(credentialService.authenticate("alice", "other").block());
+		assertTrue(passwordEncoder.matches("admin123", store.findPasswordHash("admin")));
+	}
+
+	@Test
+	void hashesOnTheAuthScheduler() {
+		AtomicReference<String> thread = new AtomicReference<>();
+		CredentialService service = new CredentialService(new CredentialStore() {
+			@Override
+			public String findPasswordHash(String username) {
+				thread.set(Thread.currentThread().getName());
+				return null;
+			}
+
+			@Override
+			public boolean saveIfAbsent(String username, String passwordHash) {
+				return false;
+			}
+		}, passwordEncoder, authScheduler);
+
+		service.authenticate("admin", "admin123").block();
+
+		assertTrue(thread.get().startsWith("auth-hashing"), thread.get());
+	}
+
+	@Test
+	void rejectsWorkOnceThePoolAndQueueAreFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch running = new CountDownLatch(1);
+		// One thread busy, one task queued: the pool has no room left
+		authScheduler.schedule(() -> {
+			running.countDown();
+			awaitQuietly(release);
+		});
+		running.await();
+		authScheduler.schedule(() -> { });
+
+		try {
+			StepVerifier.create(credentialService.authenticate("admin", "admin123"))
+					.expectError(RejectedExecutionException.class)
+					.verify();
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
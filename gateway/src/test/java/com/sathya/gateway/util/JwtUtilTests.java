@@ -0,0 +1,173 @@
+package com.sathya.gateway.util;
+
+import com.sathya.gateway.cache.VerifiedTokenCache;
+import com.sathya.gateway.model.TokenValidationResult;
+import com.sathya.gateway.model.TokenValidationResult.FailureReason;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class JwtUtilTests {
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private VerifiedTokenCache tokenCache;
+
+	@Autowired
+	private ConfigurableEnvironment environment;
+
+	@AfterEach
+	void restoreKeys() {
+		rotateTo(null);
+	}
+
+	@Test
+	void validTokenYieldsPrincipalRolesAndExpiry() {
+		String token = jwtUtil.generateToken("admin", Map.of("role", "USER"));
+
+		TokenValidationResult result = jwtUtil.validate(token);
+
+		assertTrue(result.isValid());
+		assertEquals("admin", result.getUsername());
+		assertEquals(List.of("USER"), result.getRoles());
+		assertNotNull(result.getExpiresAt());
+		assertNull(result.getFailureReason());
+	}
+
+	@Test
+	void tamperedSignatureIsRejected() {
+		String token = jwtUtil.generateToken("admin");
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		TokenValidationResult result = jwtUtil.validate(tampered);
+
+		assertFalse(result.isValid());
+		assertEquals(FailureReason.INVALID_SIGNATURE, result.getFailureReason());
+	}
+
+	@Test
+	void malformedTokenIsRejectedWithoutParsing() {
+		assertEquals(FailureReason.MALFORMED, jwtUtil.validate("not-a-jwt").getFailureReason());
+		assertEquals(FailureReason.MALFORMED, jwtUtil.validate("a.b.c.d").getFailureReason());
+		assertEquals(FailureReason.MALFORMED, jwtUtil.validate("").getFailureReason());
+		assertEquals(FailureReason.MALFORMED, jwtUtil.validate("ä.b.c").getFailureReason());
+		assertEquals(FailureReason.MALFORMED, jwtUtil.validate("a٣.b.c").getFailureReason());
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		Long expiration = (Long) ReflectionTestUtils.getField(jwtUtil, "expiration");
+		ReflectionTestUtils.setField(jwtUtil, "expiration", -60_000L);
+		try {
+			String token = jwtUtil.generateToken("admin");
+			assertEquals(FailureReason.EXPIRED, jwtUtil.validate(token).getFailureReason());
+		} finally {
+			ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+		}
+	}
+
+	@Test
+	void tokenNotYetValidIsRejected() {
+		Date now = new Date();
+		String token = Jwts.builder()
+				.subject("admin")
+				.notBefore(new Date(now.getTime() + 60_000))
+				.expiration(new Date(now.getTime() + 120_000))
+				.header().keyId("default").and()
+				.signWith(Keys.hmacShaKeyFor(environment.getRequiredProperty("jwt.secret").getBytes(StandardCharsets.UTF_8)),
+						Jwts.SIG.HS512)
+				.compact();
+
+		assertEquals(FailureReason.ERROR, jwtUtil.validate(token).getFailureReason());
+		assertNull(tokenCache.get(token));
+	}
+
+	@Test
+	void verifiedTokensAreServedFromTheCache() {
+		// Unique subject: tokens issued within the same second are otherwise identical
+		String token = jwtUtil.generateToken("cache-" + System.nanoTime(), Map.of("role", "USER"));
+		assertNull(tokenCache.get(token));
+
+		TokenValidationResult parsed = jwtUtil.validate(token);
+
+		assertSame(parsed, tokenCache.get(token));
+		assertSame(parsed, jwtUtil.validate(token));
+	}
+
+	@Test
+	void failedValidationsAreNotCached() {
+		String token = jwtUtil.generateToken("admin");
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertFalse(jwtUtil.validate(tampered).isValid());
+
+		assertNull(tokenCache.get(tampered));
+	}
+
+	@Test
+	void rotatedKeysSignNewTokensAndStillVerifyOldOnes() {
+		String before = jwtUtil.generateToken("rotation-" + System.nanoTime());
+		assertTrue(jwtUtil.validate(before).isValid());
+		assertTrue(header(before).contains("\"kid\":\"default\""));
+
+		// The previous secret stays in the ring under its kid while 2025-02 signs new tokens
+		rotateTo(Map.of(
+				"jwt.keys.default", environment.getRequiredProperty("jwt.secret"),
+				"jwt.keys.2025-02", "AnotherSuperSecretKeyForJWTTokenGenerationMustBeLongEnoughForHS512",
+				"jwt.active-key-id", "2025-02"));
+		assertNull(tokenCache.get(before));
+
+		String after = jwtUtil.generateToken("rotation-" + System.nanoTime());
+		assertTrue(header(after).contains("\"kid\":\"2025-02\""));
+		assertTrue(jwtUtil.validate(after).isValid());
+		assertTrue(jwtUtil.validate(before).isValid());
+
+		// Retiring the old key invalidates its tokens, cached or not
+		rotateTo(Map.of(
+				"jwt.keys.2025-02", "AnotherSuperSecretKeyForJWTTokenGenerationMustBeLongEnoughForHS512",
+				"jwt.active-key-id", "2025-02"));
+		assertEquals(FailureReason.UNSUPPORTED, jwtUtil.validate(before).getFailureReason());
+		assertTrue(jwtUtil.validate(after).isValid());
+	}
+
+	@Test
+	void tokenSignedWithAnotherKeyOfTheSameIdIsRejected() {
+		String token = jwtUtil.generateToken("rotation-" + System.nanoTime());
+
+		rotateTo(Map.of("jwt.keys.default", "AnotherSuperSecretKeyForJWTTokenGenerationMustBeLongEnoughForHS512"));
+
+		assertEquals(FailureReason.INVALID_SIGNATURE, jwtUtil.validate(token).getFailureReason());
+	}
+
+	// Replaces the test key ring (null restores application.yml) and fires the refresh event
+	private void rotateTo(Map<String, Object> properties) {
+		environment.getPropertySources().remove("jwt-rotation");
+		if (properties != null) {
+			environment.getPropertySources().addFirst(new MapPropertySource("jwt-rotation", properties));
+		}
+		jwtUtil.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("jwt.keys")));
+	}
+
+	private static String header(String token) {
+		return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+	}
+}